@@ -0,0 +1,87 @@
+package com.todo.app.benchmark;
+
+import com.todo.app.TodoAppApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The application without its web layer, on a private in-memory H2 database seeded with
+ * {@link #rows} TODOs spread over owners of {@value #TODOS_PER_OWNER} TODOs each. Rows are
+ * generated by H2 itself, so seeding a million TODOs takes seconds. They are seeded once the
+ * context is refreshed, before the owner index, counters and search index are built from
+ * the database when the application is ready.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+  public static final int TODOS_PER_OWNER = 100;
+
+  @Param({"1000", "100000", "1000000"})
+  public int rows;
+
+  private ConfigurableApplicationContext context;
+
+  @Setup(Level.Trial)
+  public void start() {
+    context = new SpringApplicationBuilder(TodoAppApplication.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "spring.datasource.url=jdbc:h2:mem:benchmark-" + rows + ";DB_CLOSE_DELAY=-1",
+            "spring.h2.console.enabled=false",
+            "spring.jpa.show-sql=false",
+            "logging.level.root=WARN")
+        .listeners((ApplicationListener<ApplicationEvent>) event -> {
+          if(event instanceof ContextRefreshedEvent refreshed) {
+            seed(refreshed.getApplicationContext());
+          }
+        })
+        .run();
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  public <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  public long owners() {
+    return Math.max(1, rows / TODOS_PER_OWNER);
+  }
+
+  public long randomOwnerId() {
+    return ThreadLocalRandom.current().nextLong(owners()) + 1;
+  }
+
+  public long randomTodoId() {
+    return ThreadLocalRandom.current().nextLong(rows) + 1;
+  }
+
+  private void seed(ApplicationContext context) {
+    var jdbc = context.getBean(JdbcTemplate.class);
+    jdbc.update("insert into u (id, name) select x, 'User ' || x from system_range(1, ?)", owners());
+    jdbc.update("insert into todo (id, message, done, created_at, updated_at, version, owner_id) "
+        + "select x, 'Todo message number ' || x, mod(x, 3) = 0, "
+        + "dateadd(second, x, timestamp '2022-01-01 00:00:00'), dateadd(second, x, timestamp '2022-01-01 00:00:00'), 0, "
+        + "mod(x, ?) + 1 from system_range(1, ?)", owners(), rows);
+    // Generated IDs must start after the seeded ones
+    jdbc.execute("alter sequence user_sequence restart with " + (owners() + 1000));
+    jdbc.execute("alter sequence todo_sequence restart with " + (rows + 1000L));
+    jdbc.execute("analyze");
+  }
+}
@@ -0,0 +1,74 @@
+package com.todo.app.benchmark;
+
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoPage;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.service.TodoService;
+import com.todo.app.specification.TodoSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TodoReadBenchmark {
+
+  private TodoService todoService;
+  private TodoRepository todoRepository;
+
+  @Setup
+  public void setUp(SeededApplication application) {
+    todoService = application.getBean(TodoService.class);
+    todoRepository = application.getBean(TodoRepository.class);
+  }
+
+  /**
+   * Owner listing through the list cache, mostly hits once every owner was read.
+   */
+  @Benchmark
+  public List<TodoSummary> findAllByUserId(SeededApplication application) {
+    return todoService.findAllByUserId(application.randomOwnerId());
+  }
+
+  /**
+   * Owner listing straight from the database, what a cache miss costs.
+   */
+  @Benchmark
+  public List<TodoSummary> findAllByUserIdUncached(SeededApplication application) {
+    var filter = TodoFilter.byOwner(application.randomOwnerId());
+    return todoRepository.findSummaries(new TodoSpecification(filter), TodoSpecification.sort(filter), Integer.MAX_VALUE);
+  }
+
+  /**
+   * First page of the done TODOs of an owner by last update, an index range scan.
+   */
+  @Benchmark
+  public TodoPage findPageDoneByUpdatedAt(SeededApplication application) throws BadRequestException {
+    var filter = TodoFilter.byOwner(application.randomOwnerId());
+    filter.setDone(true);
+    filter.setSort(TodoFilter.SORT_UPDATED_AT);
+    filter.setDirection(TodoFilter.DESCENDING);
+    return todoService.findPage(filter, null, 20);
+  }
+
+  @Benchmark
+  public TodoPage findPageAll() throws BadRequestException {
+    return todoService.findPage(new TodoFilter(), null, 100);
+  }
+}
@@ -0,0 +1,79 @@
+package com.todo.app.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.todo.app.config.JacksonConfig;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of TODO lists, configured like the application's object mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TodoSerializationBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int rows;
+
+  private ObjectMapper objectMapper;
+  private List<Todo> todos;
+  private List<TodoSummary> summaries;
+
+  @Setup
+  public void setUp() {
+    Hibernate5Module hibernate5Module = new JacksonConfig().hibernate5Module();
+    objectMapper = Jackson2ObjectMapperBuilder.json().modules(hibernate5Module).build();
+
+    todos = new ArrayList<>(rows);
+    var now = System.currentTimeMillis();
+    for(long i = 1; i <= rows; ++i) {
+      var owner = new User();
+      owner.setId(i % SeededApplication.TODOS_PER_OWNER + 1);
+      owner.setName("User " + owner.getId());
+      var todo = new Todo();
+      todo.setId(i);
+      todo.setMessage("Todo message number " + i);
+      todo.setDone(i % 3 == 0);
+      todo.setCreatedAt(new Timestamp(now + i));
+      todo.setUpdatedAt(new Timestamp(now + i));
+      todo.setVersion(0L);
+      todo.setOwner(owner);
+      todos.add(todo);
+    }
+    summaries = todos.stream().map(TodoSummary::from).toList();
+  }
+
+  @Benchmark
+  public byte[] serializeTodos() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(todos);
+  }
+
+  @Benchmark
+  public byte[] serializeSummaries() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(summaries);
+  }
+}
@@ -0,0 +1,70 @@
+package com.todo.app.benchmark;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.User;
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.exceptions.PreconditionFailedException;
+import com.todo.app.exceptions.ResourceAlreadyExistsException;
+import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.service.TodoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TodoWriteBenchmark {
+
+  private TodoService todoService;
+
+  @Setup
+  public void setUp(SeededApplication application) {
+    todoService = application.getBean(TodoService.class);
+  }
+
+  @Benchmark
+  public Todo create(SeededApplication application) throws BadRequestException, ResourceAlreadyExistsException {
+    var owner = new User();
+    owner.setId(application.randomOwnerId());
+    var todo = new Todo();
+    todo.setMessage("Benchmark message");
+    todo.setOwner(owner);
+    return todoService.create(todo);
+  }
+
+  @Benchmark
+  public void updateStatus(SeededApplication application) throws ResourceNotFoundException {
+    todoService.updateStatus(application.randomTodoId(), ThreadLocalRandom.current().nextBoolean());
+  }
+
+  @Benchmark
+  public void updateMessage(SeededApplication application) throws ResourceNotFoundException, BadRequestException {
+    todoService.updateMessage(application.randomTodoId(), "Benchmark message " + ThreadLocalRandom.current().nextInt());
+  }
+
+  @Benchmark
+  public Todo updateTodo(SeededApplication application)
+      throws ResourceNotFoundException, BadRequestException, PreconditionFailedException {
+    var todo = todoService.findById(application.randomTodoId());
+    var update = new Todo();
+    update.setId(todo.getId());
+    update.setMessage("Benchmark message " + ThreadLocalRandom.current().nextInt());
+    update.setDone(!todo.isDone());
+    update.setOwner(todo.getOwner());
+    return todoService.updateTodo(update, null);
+  }
+}
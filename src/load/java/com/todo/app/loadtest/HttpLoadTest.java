@@ -0,0 +1,346 @@
+package com.todo.app.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.app.TodoAppApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load test of the REST API. Boots the application on a random port with its
+ * in-memory H2 database, seeds users and TODOs through the API, then starts requests at a
+ * fixed rate whether or not earlier ones have completed, and reports latency percentiles
+ * per operation. See {@link LoadTestSettings} for the {@code load.*} system properties.
+ * <p>
+ * With {@code load.concurrency} set the load is closed instead: that many clients each send
+ * their next request once the previous one completed, which measures the throughput the
+ * server sustains with that many requests in flight.
+ */
+public class HttpLoadTest {
+  private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(1);
+  private static final long LAG_WARNING_MICROS = TimeUnit.MILLISECONDS.toMicros(10);
+
+  private final LoadTestSettings settings;
+  private final URI baseUri;
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+  private final Operation[] weightedOperations;
+  private final List<Long> userIds = new ArrayList<>();
+  // Guarded by itself, TODOs that exist or are about to be created
+  private final List<Long> todoIds = new ArrayList<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong maxSchedulingLagNanos = new AtomicLong();
+
+  public HttpLoadTest(LoadTestSettings settings, URI baseUri) {
+    this.settings = settings;
+    this.baseUri = baseUri;
+    List<Operation> weighted = new ArrayList<>();
+    settings.mix().forEach((operation, weight) -> {
+      stats.put(operation, new OperationStats(operation.name()));
+      for(int i = 0; i < weight; ++i) {
+        weighted.add(operation);
+      }
+    });
+    this.weightedOperations = weighted.toArray(Operation[]::new);
+  }
+
+  public static void main(String[] args) throws Exception {
+    var settings = LoadTestSettings.fromSystemProperties();
+    // The devtools restart class loader only adds noise to a measurement
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    try(var context = new SpringApplicationBuilder(TodoAppApplication.class)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_ON_EXIT=FALSE",
+            "spring.h2.console.enabled=false",
+            "logging.level.root=WARN",
+            // Controllers log every 404 as an error, which would dominate the run
+            "logging.level.com.todo.app.controller=OFF")
+        .run(args)) {
+      var port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+      var loadTest = new HttpLoadTest(settings, URI.create("http://localhost:" + port));
+      loadTest.seed();
+      if(settings.concurrency() > 0) {
+        loadTest.runClosed();
+      } else {
+        loadTest.run();
+      }
+      loadTest.report(System.out);
+    }
+  }
+
+  /**
+   * Creates the users and their TODOs through the API, one batch per user.
+   */
+  public void seed() throws IOException, InterruptedException {
+    for(int i = 0; i < settings.users(); ++i) {
+      var user = send(post("/user", Map.of("name", "Load test user " + i)));
+      var userId = user.get("id").asLong();
+      userIds.add(userId);
+
+      List<Map<String, Object>> todos = new ArrayList<>();
+      for(int j = 0; j < settings.todosPerUser(); ++j) {
+        todos.add(todo(userId, "Load test TODO " + j));
+      }
+      if(!todos.isEmpty()) {
+        send(post("/api/todos/batch", todos)).get("createdIds").forEach(x -> todoIds.add(x.asLong()));
+      }
+    }
+  }
+
+  public void run() throws InterruptedException {
+    var start = System.nanoTime();
+    var measureFrom = start + settings.warmup().toNanos();
+    var end = measureFrom + settings.duration().toNanos();
+
+    for(long i = 0; ; ++i) {
+      var scheduled = start + i * TimeUnit.SECONDS.toNanos(1) / settings.rate();
+      if(scheduled >= end) {
+        break;
+      }
+
+      var wait = scheduled - System.nanoTime();
+      if(wait > 0) {
+        LockSupport.parkNanos(wait);
+      } else {
+        maxSchedulingLagNanos.accumulateAndGet(-wait, Math::max);
+      }
+
+      var operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+      var request = request(operation);
+      if(request == null) {
+        continue;
+      }
+
+      var recorded = scheduled >= measureFrom;
+      inFlight.incrementAndGet();
+      client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+        var completed = System.nanoTime();
+        try {
+          if(recorded) {
+            stats.get(operation).record(scheduled, completed, error == null ? response.statusCode() : -1);
+          }
+          if(error == null && operation == Operation.CREATE && response.statusCode() == 201) {
+            addTodoId(objectMapper.readTree(response.body()).get("id").asLong());
+          }
+        } catch (IOException ex) {
+          throw new IllegalStateException(ex);
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      });
+    }
+
+    var drainUntil = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+    while(inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  /**
+   * Runs {@code load.concurrency} clients in a closed loop until the end of the measurement.
+   * Latencies are measured from the time each request was sent.
+   */
+  public void runClosed() throws InterruptedException {
+    var start = System.nanoTime();
+    var measureFrom = start + settings.warmup().toNanos();
+    var end = measureFrom + settings.duration().toNanos();
+
+    var clients = new CountDownLatch(settings.concurrency());
+    for(int i = 0; i < settings.concurrency(); ++i) {
+      sendNext(measureFrom, end, clients);
+    }
+    if(!clients.await(settings.warmup().plus(settings.duration()).plus(DRAIN_TIMEOUT).toNanos(), TimeUnit.NANOSECONDS)) {
+      System.out.println("WARNING: " + clients.getCount() + " clients did not complete their last request");
+    }
+  }
+
+  private void sendNext(long measureFrom, long end, CountDownLatch clients) {
+    var sent = System.nanoTime();
+    if(sent >= end) {
+      clients.countDown();
+      return;
+    }
+
+    var operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+    var request = request(operation);
+    if(request == null) {
+      // No TODO left to update or delete
+      operation = Operation.LIST;
+      request = request(operation);
+    }
+
+    var recorded = sent >= measureFrom;
+    var sentOperation = operation;
+    client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+      try {
+        if(recorded) {
+          stats.get(sentOperation).record(sent, System.nanoTime(), error == null ? response.statusCode() : -1);
+        }
+        if(error == null && sentOperation == Operation.CREATE && response.statusCode() == 201) {
+          addTodoId(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+      } catch (IOException ex) {
+        throw new IllegalStateException(ex);
+      } finally {
+        sendNext(measureFrom, end, clients);
+      }
+    });
+  }
+
+  /**
+   * Prints a summary and writes the JSON report, plus one percentile distribution file per
+   * operation next to it.
+   */
+  public void report(PrintStream out) throws IOException {
+    var seconds = settings.duration().toNanos() / 1e9;
+    var total = new OperationStats("TOTAL");
+    Map<String, Object> operations = new LinkedHashMap<>();
+    var reportPath = Path.of(settings.report()).toAbsolutePath();
+    Files.createDirectories(reportPath.getParent());
+
+    var lagMicros = TimeUnit.NANOSECONDS.toMicros(maxSchedulingLagNanos.get());
+    if(settings.concurrency() > 0) {
+      out.printf("%n%d concurrent clients for %s after %s warmup%n", settings.concurrency(), settings.duration(),
+          settings.warmup());
+    } else {
+      out.printf("%nTarget rate %d req/s for %s after %s warmup, max scheduling lag %d us%n", settings.rate(),
+          settings.duration(), settings.warmup(), lagMicros);
+    }
+    if(lagMicros > LAG_WARNING_MICROS) {
+      // Latencies are still measured from the schedule, but the load generator competed for CPU
+      out.println("WARNING: requests were started late, the machine running the test is saturated");
+    }
+    for(var entry : stats.entrySet()) {
+      var operationStats = entry.getValue();
+      operationStats.printSummary(out);
+      operations.put(entry.getKey().name(), operationStats.toReport(seconds));
+      total.add(operationStats);
+
+      var distribution = reportPath.resolveSibling(fileName(reportPath) + "-" + entry.getKey().name().toLowerCase() + ".hgrm");
+      try(var stream = new PrintStream(Files.newOutputStream(distribution))) {
+        operationStats.printDistribution(stream);
+      }
+    }
+    total.printSummary(out);
+    out.printf("Throughput %.1f req/s%n", total.count() / seconds);
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("timestamp", Instant.now().toString());
+    report.put("rate", settings.rate());
+    report.put("concurrency", settings.concurrency());
+    report.put("warmup", settings.warmup().toString());
+    report.put("duration", settings.duration().toString());
+    report.put("mix", settings.mix());
+    report.put("users", settings.users());
+    report.put("todosPerUser", settings.todosPerUser());
+    report.put("maxSchedulingLagMicros", lagMicros);
+    report.put("total", total.toReport(seconds));
+    report.put("operations", operations);
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(), report);
+    out.println("Report written to " + reportPath);
+  }
+
+  private HttpRequest request(Operation operation) {
+    return switch(operation) {
+      case LIST -> HttpRequest.newBuilder(uri("/api/todos/" + randomUserId())).GET().build();
+      case CREATE -> post("/api/todo", todo(randomUserId(), "Load test TODO"));
+      case UPDATE -> {
+        var todoId = randomTodoId(false);
+        yield todoId == null ? null
+            : json(uri("/api/todo/" + todoId), "PATCH", Map.of("message", "Updated load test TODO"));
+      }
+      case DELETE -> {
+        var todoId = randomTodoId(true);
+        yield todoId == null ? null : HttpRequest.newBuilder(uri("/api/todo/" + todoId)).DELETE().build();
+      }
+    };
+  }
+
+  private Long randomUserId() {
+    return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+  }
+
+  private Long randomTodoId(boolean remove) {
+    synchronized(todoIds) {
+      if(todoIds.isEmpty()) {
+        return null;
+      }
+      var index = ThreadLocalRandom.current().nextInt(todoIds.size());
+      var todoId = todoIds.get(index);
+      if(remove) {
+        todoIds.set(index, todoIds.get(todoIds.size() - 1));
+        todoIds.remove(todoIds.size() - 1);
+      }
+      return todoId;
+    }
+  }
+
+  private void addTodoId(Long todoId) {
+    synchronized(todoIds) {
+      todoIds.add(todoId);
+    }
+  }
+
+  private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+    var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    if(response.statusCode() / 100 != 2) {
+      throw new IllegalStateException(request.method() + " " + request.uri() + " failed with " + response.statusCode());
+    }
+    return objectMapper.readTree(response.body());
+  }
+
+  private HttpRequest post(String path, Object body) {
+    return json(uri(path), "POST", body);
+  }
+
+  private HttpRequest json(URI uri, String method, Object body) {
+    try {
+      return HttpRequest.newBuilder(uri)
+          .header("Content-Type", "application/json")
+          .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+          .build();
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private URI uri(String path) {
+    return baseUri.resolve(path);
+  }
+
+  private static Map<String, Object> todo(Long ownerId, String message) {
+    return Map.of("message", message, "owner", Map.of("id", ownerId));
+  }
+
+  private static String fileName(Path report) {
+    var name = report.getFileName().toString();
+    return name.endsWith(".json") ? name.substring(0, name.length() - ".json".length()) : name;
+  }
+}
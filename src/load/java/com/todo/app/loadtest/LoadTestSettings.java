@@ -0,0 +1,53 @@
+package com.todo.app.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code load.*} system properties.
+ *
+ * @param rate         requests started per second, whatever the response times
+ * @param concurrency  when positive, clients that each send a request as soon as their previous
+ *                     one completed, instead of {@code rate}
+ * @param warmup       time spent at {@code rate} before latencies are recorded
+ * @param duration     time during which latencies are recorded
+ * @param mix          relative weight of each operation
+ * @param users        users created before the run
+ * @param todosPerUser TODOs created for each user before the run
+ * @param report       JSON report written at the end of the run
+ */
+public record LoadTestSettings(int rate, int concurrency, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+                               int users, int todosPerUser, String report) {
+
+  public static LoadTestSettings fromSystemProperties() {
+    return new LoadTestSettings(
+        Integer.getInteger("load.rate", 100),
+        Integer.getInteger("load.concurrency", 0),
+        Duration.parse(System.getProperty("load.warmup", "PT10S")),
+        Duration.parse(System.getProperty("load.duration", "PT30S")),
+        parseMix(System.getProperty("load.mix", "list=60,create=20,update=15,delete=5")),
+        Integer.getInteger("load.users", 50),
+        Integer.getInteger("load.todos-per-user", 20),
+        System.getProperty("load.report", "target/load-report.json"));
+  }
+
+  /**
+   * Parses weights like {@code list=60,create=20,update=15,delete=5}.
+   */
+  static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    for(var entry : mix.split(",")) {
+      var parts = entry.trim().split("=");
+      if(parts.length != 2) {
+        throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+      }
+      weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+    }
+    if(weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+      throw new IllegalArgumentException("load.mix needs a positive weight: " + mix);
+    }
+    return weights;
+  }
+}
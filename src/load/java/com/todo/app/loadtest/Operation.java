@@ -0,0 +1,15 @@
+package com.todo.app.loadtest;
+
+/**
+ * Requests mixed by the load test.
+ */
+public enum Operation {
+  /** {@code GET /api/todos/{userId}} */
+  LIST,
+  /** {@code POST /api/todo} */
+  CREATE,
+  /** {@code PATCH /api/todo/{todoId}} */
+  UPDATE,
+  /** {@code DELETE /api/todo/{todoId}} */
+  DELETE
+}
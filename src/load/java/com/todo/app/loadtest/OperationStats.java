@@ -0,0 +1,83 @@
+package com.todo.app.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation. Latencies are in microseconds and measured from
+ * the time a request was scheduled to start, not from when it was actually sent, so a
+ * stalled server is charged for every request that queued behind it (no coordinated
+ * omission).
+ */
+public class OperationStats {
+  private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(5);
+
+  private final String name;
+  private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+  private final LongAdder succeeded = new LongAdder();
+  private final LongAdder notFound = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  public OperationStats(String name) {
+    this.name = name;
+  }
+
+  public void record(long scheduledNanos, long completedNanos, int status) {
+    latencies.recordValue(Math.min(HIGHEST_LATENCY, TimeUnit.NANOSECONDS.toMicros(completedNanos - scheduledNanos)));
+    if(status >= 200 && status < 300) {
+      succeeded.increment();
+    } else if(status == 404) {
+      // A TODO picked for an update can be deleted by a request still in flight
+      notFound.increment();
+    } else {
+      failed.increment();
+    }
+  }
+
+  public void add(OperationStats other) {
+    latencies.add(other.latencies);
+    succeeded.add(other.succeeded.sum());
+    notFound.add(other.notFound.sum());
+    failed.add(other.failed.sum());
+  }
+
+  public long count() {
+    return latencies.getTotalCount();
+  }
+
+  public Map<String, Object> toReport(double seconds) {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("requests", latencies.getTotalCount());
+    report.put("throughput", latencies.getTotalCount() / seconds);
+    report.put("succeeded", succeeded.sum());
+    report.put("notFound", notFound.sum());
+    report.put("failed", failed.sum());
+    Map<String, Object> percentiles = new LinkedHashMap<>();
+    percentiles.put("p50", latencies.getValueAtPercentile(50));
+    percentiles.put("p90", latencies.getValueAtPercentile(90));
+    percentiles.put("p99", latencies.getValueAtPercentile(99));
+    percentiles.put("p99.9", latencies.getValueAtPercentile(99.9));
+    percentiles.put("max", latencies.getMaxValue());
+    report.put("latencyMicros", percentiles);
+    return report;
+  }
+
+  public void printSummary(PrintStream out) {
+    out.printf("%-8s %9d req  p50 %9d us  p99 %9d us  p99.9 %9d us  max %9d us  404 %6d  failed %6d%n", name,
+        latencies.getTotalCount(), latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99),
+        latencies.getValueAtPercentile(99.9), latencies.getMaxValue(), notFound.sum(), failed.sum());
+  }
+
+  /**
+   * Full percentile distribution, in the format read by the HdrHistogram plotter.
+   */
+  public void printDistribution(PrintStream out) {
+    latencies.outputPercentileDistribution(out, 1.0);
+  }
+}
@@ -0,0 +1,26 @@
+package com.todo.app.cache;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "Statistics of an in-process cache since startup")
+@Getter
+@AllArgsConstructor
+public class CacheStatistics {
+  @ApiModelProperty(notes = "Approximate number of entries, including cached misses", example = "120")
+  private long size;
+
+  @ApiModelProperty(notes = "Lookups served from the cache", example = "5000")
+  private long hits;
+
+  @ApiModelProperty(notes = "Lookups that went to the database", example = "100")
+  private long misses;
+
+  @ApiModelProperty(notes = "Entries removed because of the size bound or expiration", example = "10")
+  private long evictions;
+
+  @ApiModelProperty(notes = "hits / (hits + misses)", example = "0.98")
+  private double hitRate;
+}
@@ -0,0 +1,89 @@
+package com.todo.app.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of entities by ID. Entries expire after {@code ttl}; misses are
+ * cached as well for {@code negativeTtl}, unless it is zero, so repeated lookups of missing
+ * IDs stop reaching the database.
+ */
+public class EntityCache<T> {
+
+  private final Cache<Long, Optional<T>> cache;
+  private final boolean cacheMisses;
+
+  public EntityCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+    this.cacheMisses = !negativeTtl.isZero();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new Expiry<Long, Optional<T>>() {
+          @Override
+          public long expireAfterCreate(Long key, Optional<T> value, long currentTime) {
+            return value.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+          }
+
+          @Override
+          public long expireAfterUpdate(Long key, Optional<T> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(Long key, Optional<T> value, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the cached entity or loads it. Loading is atomic per key, so an
+   * {@link #invalidate(Long)} issued after a write waits for a concurrent load of the old
+   * row and then removes it, instead of letting the stale row be cached.
+   */
+  public Optional<T> get(Long id, Function<Long, Optional<T>> loader) {
+    var entity = cache.get(id, key -> {
+      var loaded = loader.apply(key);
+      return loaded.isPresent() || cacheMisses ? loaded : null;
+    });
+    return entity == null ? Optional.empty() : entity;
+  }
+
+  /**
+   * Returns what is cached for {@code id} without loading it, null when nothing is.
+   */
+  public Optional<T> getIfPresent(Long id) {
+    return cache.getIfPresent(id);
+  }
+
+  public void put(Long id, T entity) {
+    cache.put(id, Optional.of(entity));
+  }
+
+  public void invalidate(Long id) {
+    cache.invalidate(id);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public CacheStatistics statistics() {
+    var stats = cache.stats();
+    return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+        stats.evictionCount(), stats.hitRate());
+  }
+
+  /**
+   * Underlying Caffeine cache, for metric binders.
+   */
+  public Cache<Long, Optional<T>> getNativeCache() {
+    return cache;
+  }
+}
@@ -0,0 +1,131 @@
+package com.todo.app.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.todo.app.entity.TodoSummary;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caches the complete TODO list of an owner as summaries, ordered by ID. The bound is the total number
+ * of TODOs held across all lists, and owners with more than {@code maxListSize} TODOs are
+ * never cached.
+ *
+ * <p>Consistency: every write bumps the version of its owner and drops the affected list. A
+ * list loaded from the database is only stored if no write of that owner happened while it
+ * was being loaded, so a load racing with a write can never leave a stale list behind, and
+ * writes of other owners do not keep it out. Versions are striped by owner ID, owners sharing
+ * a stripe only cost each other a missed put. Writes that do not know the owner (deletes by
+ * ID) are resolved through a reverse TODO ID to owner index of the cached lists, and bump
+ * every version when that fails.
+ */
+public class TodoListCache {
+
+  private static final int VERSION_STRIPES = 1024;
+
+  private final Cache<Long, List<TodoSummary>> cache;
+  private final Map<Long, Long> ownerByTodoId = new ConcurrentHashMap<>();
+  @Getter
+  private final int maxListSize;
+  private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+  // Bumped by writes of an unknown owner, part of the version of every owner
+  private volatile long epoch;
+
+  public TodoListCache(long maximumEntries, Duration ttl, int maxListSize) {
+    this.maxListSize = maxListSize;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maximumEntries)
+        .weigher((Long ownerId, List<TodoSummary> todos) -> Math.max(1, todos.size()))
+        .expireAfterWrite(ttl)
+        .executor(Runnable::run)
+        .removalListener((Long ownerId, List<TodoSummary> todos, RemovalCause cause) -> unindex(ownerId, todos))
+        .recordStats()
+        .build();
+  }
+
+  public List<TodoSummary> getIfPresent(Long ownerId) {
+    return ownerId == null ? null : cache.getIfPresent(ownerId);
+  }
+
+  /**
+   * Version of the list of {@code ownerId} to read before loading it from the database and
+   * hand back to {@link #putIfUnchanged(Long, List, long)}. Both parts only ever grow, so
+   * their sum changes whenever either does.
+   */
+  public long version(Long ownerId) {
+    return ownerId == null ? epoch : epoch + versions.get(stripe(ownerId));
+  }
+
+  /**
+   * Caches {@code todos} as the complete list of {@code ownerId}, unless a write of that
+   * owner happened since {@code loadedAtVersion} or the list is too large.
+   */
+  public synchronized void putIfUnchanged(Long ownerId, List<TodoSummary> todos, long loadedAtVersion) {
+    if(ownerId == null || loadedAtVersion != version(ownerId) || todos.size() > maxListSize) {
+      return;
+    }
+
+    // Indexed first, so an immediate eviction cannot run its unindex before we index
+    var list = List.copyOf(todos);
+    list.forEach(x -> ownerByTodoId.put(x.getId(), ownerId));
+    cache.asMap().putIfAbsent(ownerId, list);
+  }
+
+  /**
+   * Drops the list of {@code ownerId}. Lists of TODOs without owner are never cached, so
+   * there is nothing to do for them.
+   */
+  public synchronized void invalidateOwner(Long ownerId) {
+    if(ownerId != null) {
+      versions.incrementAndGet(stripe(ownerId));
+      cache.invalidate(ownerId);
+    }
+  }
+
+  /**
+   * Drops the cached list containing {@code todoId}, if any, and the list of
+   * {@code ownerId} when the caller knows the owner.
+   */
+  public synchronized void invalidateTodo(Long todoId, Long ownerId) {
+    var cachedOwnerId = ownerByTodoId.get(todoId);
+    if(cachedOwnerId == null && ownerId == null) {
+      epoch++;
+      return;
+    }
+    invalidateOwner(cachedOwnerId);
+    invalidateOwner(ownerId);
+  }
+
+  public synchronized void invalidateAll() {
+    epoch++;
+    cache.invalidateAll();
+  }
+
+  public CacheStatistics statistics() {
+    var stats = cache.stats();
+    return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+        stats.evictionCount(), stats.hitRate());
+  }
+
+  public Cache<Long, List<TodoSummary>> getNativeCache() {
+    return cache;
+  }
+
+  private static int stripe(long ownerId) {
+    return Math.floorMod(Long.hashCode(ownerId), VERSION_STRIPES);
+  }
+
+  // Not synchronized: Caffeine may notify removals while holding its own eviction lock
+  private void unindex(Long ownerId, List<TodoSummary> todos) {
+    if(ownerId == null || todos == null) {
+      return;
+    }
+    todos.forEach(x -> ownerByTodoId.remove(x.getId(), ownerId));
+  }
+}
@@ -0,0 +1,62 @@
+package com.todo.app.config;
+
+import com.todo.app.controller.OffloadingHandlerAdapter;
+import com.todo.app.controller.TodoController;
+import com.todo.app.controller.UserController;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With {@code app.web.execution = async} the TODO and user endpoints run on a dedicated
+ * executor of {@code app.web.async.threads} threads instead of the Tomcat request threads, see
+ * {@link OffloadingHandlerAdapter}. Every one of those threads holds a connection while it
+ * runs, so the executor is sized like the connection pool. Up to
+ * {@code app.web.async.queue-capacity} requests wait for a thread, the next ones are answered
+ * with a 503. The default {@code blocking} mode keeps one request thread per request from
+ * start to end.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.web.execution", havingValue = "async")
+public class AsyncExecutionConfig {
+
+  // Not a bean of its own, which would stand in for the default task executor of Spring MVC
+  private final ThreadPoolExecutor executor;
+
+  public AsyncExecutionConfig(@Value("${app.web.async.threads:10}") int threads,
+                              @Value("${app.web.async.queue-capacity:500}") int queueCapacity) {
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("jdbc-"));
+  }
+
+  @Bean
+  public WebMvcRegistrations offloadingRegistrations() {
+    return new WebMvcRegistrations() {
+      @Override
+      public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        return new OffloadingHandlerAdapter(executor, Set.of(TodoController.class, UserController.class));
+      }
+    };
+  }
+
+  /**
+   * Publishes the queue length and pool usage of the executor as {@code executor_*} meters
+   * tagged {@code name=jdbc}.
+   */
+  @Bean
+  public MeterBinder offloadingExecutorMetrics() {
+    return new ExecutorServiceMetrics(executor, "jdbc", Tags.empty());
+  }
+}
@@ -0,0 +1,36 @@
+package com.todo.app.config;
+
+import com.todo.app.cache.EntityCache;
+import com.todo.app.cache.TodoListCache;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+  @Bean
+  public EntityCache<Todo> todoCache(@Value("${app.cache.todo.maximum-size:10000}") long maximumSize,
+                                     @Value("${app.cache.todo.ttl:PT5M}") Duration ttl,
+                                     @Value("${app.cache.todo.negative-ttl:PT0S}") Duration negativeTtl) {
+    return new EntityCache<>(maximumSize, ttl, negativeTtl);
+  }
+
+  @Bean
+  public EntityCache<User> userCache(@Value("${app.cache.user.maximum-size:10000}") long maximumSize,
+                                     @Value("${app.cache.user.ttl:PT5M}") Duration ttl,
+                                     @Value("${app.cache.user.negative-ttl:PT0S}") Duration negativeTtl) {
+    return new EntityCache<>(maximumSize, ttl, negativeTtl);
+  }
+
+  @Bean
+  public TodoListCache todoListCache(@Value("${app.cache.todo-list.maximum-entries:200000}") long maximumEntries,
+                                     @Value("${app.cache.todo-list.ttl:PT5M}") Duration ttl,
+                                     @Value("${app.cache.todo-list.max-list-size:1000}") int maxListSize) {
+    return new TodoListCache(maximumEntries, ttl, maxListSize);
+  }
+}
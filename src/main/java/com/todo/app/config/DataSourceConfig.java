@@ -0,0 +1,63 @@
+package com.todo.app.config;
+
+import com.todo.app.datasource.ReadYourWrites;
+import com.todo.app.datasource.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * With {@code app.datasource.replica.jdbc-url} set, reads that tolerate replication lag go to
+ * a second pool, see {@link RoutingDataSource}. The primary pool is configured with the usual
+ * {@code spring.datasource.*} properties, the replica pool with
+ * {@code app.datasource.replica.*}, both with any Hikari setting such as
+ * {@code maximum-pool-size}. Without a replica URL there is a single pool, as before.
+ */
+@Configuration
+public class DataSourceConfig {
+
+  @Bean
+  public ReadYourWrites readYourWrites(@Value("${app.datasource.read-your-writes-window:PT2S}") Duration window) {
+    return new ReadYourWrites(window);
+  }
+
+  @Configuration
+  @ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+  public static class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+      var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+      dataSource.setPoolName("primary");
+      return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+      var dataSource = new HikariDataSource();
+      dataSource.setPoolName("replica");
+      return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+      var routing = new RoutingDataSource(primary, replica);
+      routing.afterPropertiesSet();
+      return new LazyConnectionDataSourceProxy(routing);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.todo.app.config;
+
+import com.todo.app.feed.TodoChangeFeed;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The change feed is written out by {@code app.events.threads} threads, whatever the number
+ * of subscribers.
+ */
+@Configuration
+public class FeedConfig {
+
+  // Not a bean of its own, which would stand in for the default task executor of Spring MVC
+  private final ExecutorService executor;
+
+  public FeedConfig(@Value("${app.events.threads:2}") int threads) {
+    this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("feed-"));
+  }
+
+  @Bean
+  public TodoChangeFeed todoChangeFeed(@Value("${app.events.buffer-size:64}") int bufferSize,
+                                       @Value("${app.events.send-timeout:PT5S}") Duration sendTimeout) {
+    return new TodoChangeFeed(executor, bufferSize, sendTimeout);
+  }
+
+  @Bean
+  public MeterBinder feedMetrics(TodoChangeFeed feed) {
+    return registry -> {
+      Gauge.builder("todo.feed.subscribers", feed, TodoChangeFeed::subscriberCount)
+          .description("Open change feed connections")
+          .register(registry);
+      FunctionCounter.builder("todo.feed.resyncs", feed, TodoChangeFeed::resyncCount)
+          .description("Resyncs sent because a subscriber fell too far behind")
+          .register(registry);
+      FunctionCounter.builder("todo.feed.stalled", feed, TodoChangeFeed::stalledCount)
+          .description("Subscribers dropped because a send to them did not finish in time")
+          .register(registry);
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,14 @@
+package com.todo.app.config;
+
+import com.todo.app.index.TodoOwnerIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IndexConfig {
+
+  @Bean
+  public TodoOwnerIndex todoOwnerIndex() {
+    return new TodoOwnerIndex();
+  }
+}
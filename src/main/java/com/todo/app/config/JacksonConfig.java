@@ -0,0 +1,55 @@
+package com.todo.app.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+  /**
+   * Writes lazy associations that were not loaded, like {@code Todo.owner}, as an object
+   * with just the ID instead of loading them or failing on the Hibernate proxy.
+   */
+  @Bean
+  public Hibernate5Module hibernate5Module() {
+    var module = new Hibernate5Module();
+    module.enable(Hibernate5Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+    return module;
+  }
+
+  /**
+   * Answers {@code Accept: application/cbor}. JSON stays the default, it comes first among
+   * the converters.
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder, new CBORFactory()));
+  }
+
+  /**
+   * Answers {@code Accept: application/x-jackson-smile}.
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder, new SmileFactory()));
+  }
+
+  /**
+   * Same modules and settings as the JSON mapper, but timestamps are written as epoch
+   * milliseconds, a number instead of a 29 character string.
+   */
+  private static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+    return builder.factory(factory)
+        .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+  }
+}
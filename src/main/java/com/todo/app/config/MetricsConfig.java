@@ -0,0 +1,39 @@
+package com.todo.app.config;
+
+import com.todo.app.cache.EntityCache;
+import com.todo.app.cache.TodoListCache;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.User;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+  /**
+   * Times every method of the classes annotated with {@code @Timed}, like {@code TodoService}
+   * and {@code UserService}, tagged by class, method and exception.
+   */
+  @Bean
+  public TimedAspect timedAspect(MeterRegistry registry) {
+    return new TimedAspect(registry);
+  }
+
+  /**
+   * The in-process caches stand in for the Hibernate second-level cache, which is not enabled,
+   * so their hits, misses and evictions are published as {@code cache_*} meters.
+   */
+  @Bean
+  public MeterBinder cacheMetrics(EntityCache<Todo> todoCache, EntityCache<User> userCache,
+                                  TodoListCache todoListCache) {
+    return registry -> {
+      CaffeineCacheMetrics.monitor(registry, todoCache.getNativeCache(), "todo");
+      CaffeineCacheMetrics.monitor(registry, userCache.getNativeCache(), "user");
+      CaffeineCacheMetrics.monitor(registry, todoListCache.getNativeCache(), "todoList");
+    };
+  }
+}
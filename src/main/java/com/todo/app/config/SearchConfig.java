@@ -0,0 +1,14 @@
+package com.todo.app.config;
+
+import com.todo.app.search.TodoSearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SearchConfig {
+
+  @Bean
+  public TodoSearchIndex todoSearchIndex() {
+    return new TodoSearchIndex();
+  }
+}
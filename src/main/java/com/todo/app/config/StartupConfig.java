@@ -0,0 +1,22 @@
+package com.todo.app.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * With {@code app.startup.exit-when-ready = true} the application stops as soon as it is
+ * ready. Used to record the class-data-sharing archive of a full startup, the JVM writes it
+ * when it exits, see the {@code cds} Maven profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.startup.exit-when-ready", havingValue = "true")
+public class StartupConfig {
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void exitWhenReady(ApplicationReadyEvent event) {
+    System.exit(SpringApplication.exit(event.getApplicationContext()));
+  }
+}
@@ -0,0 +1,16 @@
+package com.todo.app.config;
+
+import com.todo.app.stats.TodoCounters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class StatsConfig {
+
+  @Bean
+  public TodoCounters todoCounters() {
+    return new TodoCounters();
+  }
+}
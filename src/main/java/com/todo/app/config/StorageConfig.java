@@ -0,0 +1,27 @@
+package com.todo.app.config;
+
+import com.todo.app.storage.MutationLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * With {@code app.storage.engine = log} every change is also appended to a log on local disk
+ * and replayed into the database at startup, see {@link com.todo.app.service.LogStorageService}.
+ * The default engine, {@code memory}, keeps the data only in the database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "log")
+public class StorageConfig {
+
+  @Bean(destroyMethod = "close")
+  public MutationLog mutationLog(@Value("${app.storage.log.directory:data}") String directory,
+                                 @Value("${app.storage.log.segment-size:64MB}") DataSize segmentSize,
+                                 @Value("${app.storage.log.fsync:true}") boolean fsync) {
+    return new MutationLog(Path.of(directory), segmentSize.toBytes(), fsync);
+  }
+}
@@ -1,7 +1,11 @@
 package com.todo.app.config;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -9,31 +13,63 @@ import springfox.documentation.service.Contact;
 import springfox.documentation.service.Tag;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 import java.util.Collections;
+import java.util.List;
 
+/**
+ * Documents the controllers of the application only. Turned off with
+ * {@code app.swagger.enabled = false}, as the {@code prod} profile does, which leaves the
+ * springfox scanning out of the startup.
+ */
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(name = "app.swagger.enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 
+  public static final String controllerPackage = "com.todo.app.controller";
   public static final String todoControllerTag = "TODO";
   public static final String userControllerTag = "USER";
+  public static final String cacheControllerTag = "CACHE";
 
   @Bean
   public Docket api() {
     return new Docket(DocumentationType.SWAGGER_2)
         .select()
-        .apis(RequestHandlerSelectors.any())
+        .apis(RequestHandlerSelectors.basePackage(controllerPackage))
         .paths(PathSelectors.any())
         .build()
         .tags(new Tag(todoControllerTag,
             "Endpoint for creating, deleting, updating and querying TODOS")
         )
         .tags(new Tag(userControllerTag, "Endpoint for creating, deleting, querying user related info"))
+        .tags(new Tag(cacheControllerTag, "Endpoint for inspecting the in-process caches"))
         .apiInfo(getApiInfo());
   }
 
+  /**
+   * The actuator endpoints, like {@code /metrics}, are mapped with path patterns that springfox
+   * cannot read, so they are left out of the handler mappings it documents.
+   */
+  @Bean
+  public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if(bean instanceof WebMvcRequestHandlerProvider) {
+          var field = ReflectionUtils.findField(WebMvcRequestHandlerProvider.class, "handlerMappings");
+          ReflectionUtils.makeAccessible(field);
+          var mappings = (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+          mappings.removeIf(mapping -> mapping.getPatternParser() != null);
+        }
+        return bean;
+      }
+    };
+  }
+
   private ApiInfo getApiInfo() {
     return new ApiInfo(
         "Todo Application",
@@ -0,0 +1,91 @@
+package com.todo.app.config;
+
+import com.todo.app.cache.EntityCache;
+import com.todo.app.cache.TodoListCache;
+import com.todo.app.datasource.ReadYourWrites;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoState;
+import com.todo.app.event.TodoEvent;
+import com.todo.app.storage.MutationLog;
+import com.todo.app.storage.TodoWriteBehind;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With {@code app.storage.write-behind.enabled} the creates and partial updates of TODOs are
+ * acknowledged once queued, and logged with the log storage engine, then written in batches,
+ * see {@link TodoWriteBehind}. Once written, the caches are invalidated and the events of the
+ * changes published, as {@link com.todo.app.service.TodoService} does for its own writes.
+ */
+@Configuration
+public class WriteBehindConfig {
+
+  @Bean(destroyMethod = "close")
+  public TodoWriteBehind todoWriteBehind(@Value("${app.storage.write-behind.enabled:false}") boolean enabled,
+                                         @Value("${app.storage.write-behind.flush-interval:PT0.05S}") Duration flushInterval,
+                                         @Value("${app.storage.write-behind.batch-size:1000}") int batchSize,
+                                         @Value("${app.storage.write-behind.max-pending:10000}") int maxPending,
+                                         JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         ObjectProvider<MutationLog> mutationLog,
+                                         EntityCache<Todo> todoCache,
+                                         TodoListCache todoListCache,
+                                         ReadYourWrites readYourWrites,
+                                         ApplicationEventPublisher eventPublisher) {
+    var log = mutationLog.getIfAvailable();
+    TodoWriteBehind.Listener listener = (todo, previous) -> {
+      var ownerId = todo.getOwner() == null ? null : todo.getOwner().getId();
+      todoCache.invalidate(todo.getId());
+      readYourWrites.todoWritten(todo.getId(), ownerId);
+      var event = previous == null ? TodoEvent.created(todo) : TodoEvent.updated(todo, TodoState.of(previous));
+      eventPublisher.publishEvent(event.withLogged(log != null));
+      // Once the owner index holds the TODO
+      todoListCache.invalidateOwner(ownerId);
+    };
+    return new TodoWriteBehind(enabled, jdbcTemplate, new TransactionTemplate(transactionManager), log, listener,
+        flushInterval, batchSize, maxPending);
+  }
+
+  /**
+   * Writes the queue on shutdown while the listeners of the events are still there, the close
+   * of the bean only comes after theirs.
+   */
+  @Bean
+  public ApplicationListener<ContextClosedEvent> writeBehindShutdown(TodoWriteBehind writeBehind) {
+    return event -> writeBehind.flush();
+  }
+
+  @Bean
+  public MeterBinder writeBehindMetrics(TodoWriteBehind writeBehind) {
+    return registry -> {
+      Gauge.builder("todo.write-behind.queued", writeBehind, TodoWriteBehind::queuedCount)
+          .description("TODOs acknowledged and not written to the database yet")
+          .register(registry);
+      FunctionTimer.builder("todo.write-behind.flush", writeBehind, TodoWriteBehind::flushCount,
+              TodoWriteBehind::flushTimeNanos, TimeUnit.NANOSECONDS)
+          .description("Transactions writing the queued TODOs")
+          .register(registry);
+      FunctionCounter.builder("todo.write-behind.written", writeBehind, TodoWriteBehind::writtenCount)
+          .description("TODO rows written, once the queued changes of each were coalesced")
+          .register(registry);
+      FunctionCounter.builder("todo.write-behind.failures", writeBehind, TodoWriteBehind::failureCount)
+          .description("Acknowledged TODO changes dropped, and undone in the mutation log, because they could not be written")
+          .register(registry);
+    };
+  }
+}
@@ -0,0 +1,102 @@
+package com.todo.app.controller;
+
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.exceptions.PreconditionFailedException;
+import com.todo.app.exceptions.ResourceAlreadyExistsException;
+import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.utils.LogRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Maps the client errors thrown by the services to their status codes. Each one is counted in
+ * {@code http_client_errors_total}, but only a few per second are logged, then a sample of
+ * the rest, so a burst of requests for missing IDs does not flood the log.
+ * <p>
+ * Requests turned away because the executor of the {@code async} execution mode is full are
+ * answered with a 503 and counted in {@code http_requests_rejected_total}, without logging.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+  private final LogRateLimiter logRateLimiter;
+  private final Counter badRequests;
+  private final Counter notFound;
+  private final Counter conflicts;
+  private final Counter preconditionsFailed;
+  private final Counter rejected;
+
+  public ApiExceptionHandler(MeterRegistry registry,
+                             @Value("${app.logging.client-errors.max-per-window:10}") int maxPerWindow,
+                             @Value("${app.logging.client-errors.window:PT1S}") Duration window,
+                             @Value("${app.logging.client-errors.sample-rate:100}") int sampleRate) {
+    this.logRateLimiter = new LogRateLimiter(maxPerWindow, window, sampleRate);
+    this.badRequests = counter(registry, HttpStatus.BAD_REQUEST);
+    this.notFound = counter(registry, HttpStatus.NOT_FOUND);
+    this.conflicts = counter(registry, HttpStatus.CONFLICT);
+    this.preconditionsFailed = counter(registry, HttpStatus.PRECONDITION_FAILED);
+    this.rejected = Counter.builder("http.requests.rejected")
+        .description("Requests answered with a 503 because the request executor was full")
+        .register(registry);
+  }
+
+  @ExceptionHandler(BadRequestException.class)
+  public ResponseEntity<Void> badRequest(BadRequestException ex) {
+    return respond(HttpStatus.BAD_REQUEST, badRequests, ex);
+  }
+
+  @ExceptionHandler(ResourceNotFoundException.class)
+  public ResponseEntity<Void> notFound(ResourceNotFoundException ex) {
+    return respond(HttpStatus.NOT_FOUND, notFound, ex);
+  }
+
+  @ExceptionHandler(ResourceAlreadyExistsException.class)
+  public ResponseEntity<Void> conflict(ResourceAlreadyExistsException ex) {
+    return respond(HttpStatus.CONFLICT, conflicts, ex);
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<Void> preconditionFailed(PreconditionFailedException ex) {
+    return respond(HttpStatus.PRECONDITION_FAILED, preconditionsFailed, ex);
+  }
+
+  @ExceptionHandler(RejectedExecutionException.class)
+  public ResponseEntity<Void> rejected(RejectedExecutionException ex) {
+    rejected.increment();
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+  }
+
+  private ResponseEntity<Void> respond(HttpStatus status, Counter counter, Exception ex) {
+    counter.increment();
+
+    var skipped = logRateLimiter.tryAcquire();
+    if(skipped != LogRateLimiter.DENIED && logger.isWarnEnabled()) {
+      if(skipped > 0) {
+        logger.warn("{} {} ({} client errors not logged)", status.value(), ex.getMessage(), skipped);
+      } else {
+        logger.warn("{} {}", status.value(), ex.getMessage());
+      }
+    }
+
+    return ResponseEntity.status(status).build();
+  }
+
+  private static Counter counter(MeterRegistry registry, HttpStatus status) {
+    return Counter.builder("http.client.errors")
+        .description("Requests answered with a client error by the services")
+        .tag("status", String.valueOf(status.value()))
+        .register(registry);
+  }
+}
@@ -0,0 +1,51 @@
+package com.todo.app.controller;
+
+import com.todo.app.cache.CacheStatistics;
+import com.todo.app.cache.EntityCache;
+import com.todo.app.cache.TodoListCache;
+import com.todo.app.config.SwaggerConfig;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.User;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Api(tags = SwaggerConfig.cacheControllerTag)
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+  @Autowired
+  private EntityCache<Todo> todoCache;
+
+  @Autowired
+  private EntityCache<User> userCache;
+
+  @Autowired
+  private TodoListCache todoListCache;
+
+  @ApiOperation(value = "Hit, miss and eviction statistics of the in-process caches",
+      tags = SwaggerConfig.cacheControllerTag,
+      produces = "CacheStatistics")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation", response = Map.class),
+  })
+  @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Map<String, CacheStatistics>> statistics() {
+    Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+    statistics.put("todo", todoCache.statistics());
+    statistics.put("user", userCache.statistics());
+    statistics.put("todoList", todoListCache.statistics());
+    return ResponseEntity.ok(statistics);
+  }
+}
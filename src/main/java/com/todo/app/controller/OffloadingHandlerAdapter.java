@@ -0,0 +1,90 @@
+package com.todo.app.controller;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the handler methods of the given controllers on a bounded executor instead of the
+ * request thread. Arguments are still read and validated on the request thread, then the
+ * method runs on the executor and its result is written from an async dispatch, so the request
+ * thread is released while the method waits on the database. When the executor queue is full
+ * the method throws a {@link RejectedExecutionException} at once, answered with a 503 by
+ * {@link ApiExceptionHandler}.
+ * <p>
+ * Methods returning a {@link StreamingResponseBody} or a {@link ResponseBodyEmitter} already
+ * write their response from another thread and stay on the request thread.
+ */
+public class OffloadingHandlerAdapter extends RequestMappingHandlerAdapter implements DisposableBean {
+
+  private final ExecutorService executor;
+  private final Set<Class<?>> controllers;
+  private final Map<Method, Boolean> offloaded = new ConcurrentHashMap<>();
+
+  public OffloadingHandlerAdapter(ExecutorService executor, Set<Class<?>> controllers) {
+    this.executor = executor;
+    this.controllers = controllers;
+  }
+
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  @Override
+  protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+    if(!offloaded.computeIfAbsent(handlerMethod.getMethod(), x -> isOffloaded(handlerMethod))) {
+      return super.createInvocableHandlerMethod(handlerMethod);
+    }
+    return new OffloadedHandlerMethod(handlerMethod);
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
+  private boolean isOffloaded(HandlerMethod handlerMethod) {
+    var type = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+    var body = ResponseEntity.class.isAssignableFrom(type.toClass()) ? type.getGeneric().toClass() : type.toClass();
+    return controllers.contains(handlerMethod.getBeanType())
+        && !StreamingResponseBody.class.isAssignableFrom(body)
+        && !ResponseBodyEmitter.class.isAssignableFrom(body);
+  }
+
+  /**
+   * Returns a future of the value of the method, which Spring MVC writes once it completes with
+   * the same return value handlers as the value itself.
+   */
+  private class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+    private OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+      super(handlerMethod);
+    }
+
+    @Override
+    protected Object doInvoke(Object... args) {
+      var result = new CompletableFuture<>();
+      executor.execute(() -> {
+        try {
+          result.complete(super.doInvoke(args));
+        } catch (Throwable ex) {
+          result.completeExceptionally(ex);
+        }
+      });
+      return result;
+    }
+  }
+}
@@ -1,19 +1,32 @@
 package com.todo.app.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.todo.app.config.SwaggerConfig;
 import com.todo.app.entity.Message;
+import com.todo.app.entity.Status;
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoBatchResult;
+import com.todo.app.entity.TodoChange;
+import com.todo.app.entity.TodoChanges;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoPage;
+import com.todo.app.entity.TodoSummary;
 import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.exceptions.PreconditionFailedException;
 import com.todo.app.exceptions.ResourceAlreadyExistsException;
 import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.service.TodoFeedService;
+import com.todo.app.service.TodoSearchService;
 import com.todo.app.service.TodoService;
+import com.todo.app.service.TodoSyncService;
+import com.todo.app.utils.ETagUtils;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,10 +37,16 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -37,31 +56,140 @@ import java.util.List;
 @RestController
 @RequestMapping("/api")
 public class TodoController {
-  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  public static final String LAST_EVENT_ID = "Last-Event-ID";
 
   @Autowired
   private TodoService todoService;
 
-  @ApiOperation(value = "List all TODOs",
+  @Autowired
+  private TodoSearchService todoSearchService;
+
+  @Autowired
+  private TodoFeedService todoFeedService;
+
+  @Autowired
+  private TodoSyncService todoSyncService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @ApiOperation(value = "List all TODOs matching the filters, one page at a time",
       tags = SwaggerConfig.todoControllerTag,
-      produces = "Todo")
+      produces = "TodoSummary")
   @ApiResponses({
-      @ApiResponse(code = 200, message = "Successful operation", response = List.class),
+      @ApiResponse(code = 200, message = "Successful operation", response = TodoPage.class),
+      @ApiResponse(code = 400, message = "Invalid filter, sort, cursor or limit")
   })
-  @GetMapping(value = "/todos", produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<List<Todo>> findAll() {
-    return ResponseEntity.ok(todoService.findAll());
+  @GetMapping(value = "/todos", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+      APPLICATION_SMILE_VALUE})
+  public ResponseEntity<TodoPage> findAll(TodoFilter filter,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "100") int limit) throws BadRequestException {
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(todoService.findPage(filter, cursor, limit));
   }
 
-  @ApiOperation(value = "List all TODOs from user with userID",
+  @ApiOperation(value = "Search TODOs by keywords, best matches first",
+      notes = "Every keyword must match a word of the message, or be a prefix of one",
       tags = SwaggerConfig.todoControllerTag,
-      produces = "Todo")
+      produces = "TodoSummary")
   @ApiResponses({
       @ApiResponse(code = 200, message = "Successful operation", response = List.class),
+      @ApiResponse(code = 400, message = "Empty query or invalid limit")
+  })
+  @GetMapping(value = "/todos/search", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<TodoSummary>> search(@RequestParam String q,
+                                           @RequestParam(required = false) Long owner,
+                                           @RequestParam(defaultValue = "20") int limit) throws BadRequestException {
+    return ResponseEntity.ok(todoSearchService.search(q, owner, limit));
+  }
+
+  @ApiOperation(value = "Export all TODOs, or all TODOs of an owner, as newline delimited JSON",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = APPLICATION_NDJSON_VALUE)
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation"),
   })
-  @GetMapping(value = "/todos/{userId}")
-  public ResponseEntity<List<Todo>> findAllByUserId(@PathVariable long userId) {
-    return ResponseEntity.ok(todoService.findAllByUserId(userId));
+  @GetMapping(value = "/todos/export", produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) Long owner) {
+    var writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    StreamingResponseBody body = outputStream -> {
+      try(var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        // Lines are terminated explicitly below, not separated by the default space
+        generator.setRootValueSeparator(null);
+        todoService.export(owner, todo -> {
+          try {
+            writer.writeValue(generator, todo);
+            generator.writeRaw('\n');
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+      }
+    };
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+        .body(body);
+  }
+
+  @ApiOperation(value = "List all TODOs from user with userID, one page at a time",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = "TodoSummary")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation", response = TodoPage.class),
+      @ApiResponse(code = 304, message = "No TODO of the user changed since the ETag in If-None-Match"),
+      @ApiResponse(code = 400, message = "Invalid filter, sort, cursor or limit")
+  })
+  @GetMapping(value = "/todos/{userId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+      APPLICATION_SMILE_VALUE})
+  public ResponseEntity<TodoPage> findAllByUserId(@PathVariable long userId,
+                                                  TodoFilter filter,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "100") int limit,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+                                                      throws BadRequestException {
+    // Taken before the page is read, so a concurrent write can only make it older than the page
+    var etag = todoService.findListETag(userId);
+    if(ETagUtils.matches(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    filter.setOwner(userId);
+    return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(todoService.findPage(filter, cursor, limit));
+  }
+
+  @ApiOperation(value = "Stream the changes of the TODOs from user with userID as server-sent events",
+      notes = "Events are named created, updated or deleted and hold the TODO ID. A resync event means changes "
+          + "were missed and the list must be read again",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation", response = TodoChange.class),
+  })
+  @GetMapping(value = "/todos/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events(@PathVariable long userId,
+                           @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+    return todoFeedService.subscribe(userId, lastEventId != null);
+  }
+
+  @ApiOperation(value = "List the changes of the TODOs from user with userID since a sync token",
+      notes = "Without a token, or with one older than the kept tombstones, the whole list is returned with full "
+          + "set. Send the next token of the response as since on the following sync",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = "TodoChanges")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation", response = TodoChanges.class),
+      @ApiResponse(code = 400, message = "Invalid sync token")
+  })
+  @GetMapping(value = "/todos/{userId}/changes", produces = {MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+  public ResponseEntity<TodoChanges> findChanges(@PathVariable long userId,
+                                                 @RequestParam(required = false) String since)
+                                                     throws BadRequestException {
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(todoSyncService.findChanges(userId, since));
   }
 
   @ApiOperation(value = "List a specific TODO with and ID",
@@ -69,16 +197,22 @@ public class TodoController {
   produces = "Todo")
   @ApiResponses({
       @ApiResponse(code = 200, message = "Successful operation", response = Todo.class),
+      @ApiResponse(code = 304, message = "TODO did not change since the ETag in If-None-Match"),
       @ApiResponse(code = 404, message = "TODO not found")
   })
   @GetMapping(value = "/todo/{todoId}", produces = MediaType.APPLICATION_JSON_VALUE)
-  public ResponseEntity<Todo> findTodoById(@PathVariable long todoId) {
-    try {
-      return ResponseEntity.ok(todoService.findById(todoId));
-    } catch (ResourceNotFoundException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.notFound().build();
+  public ResponseEntity<Todo> findTodoById(@PathVariable long todoId,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+                                               throws ResourceNotFoundException {
+    if(ifNoneMatch != null) {
+      var etag = ETagUtils.of(todoService.findVersion(todoId));
+      if(ETagUtils.matches(ifNoneMatch, etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+      }
     }
+
+    var todo = todoService.findById(todoId);
+    return ResponseEntity.ok().eTag(ETagUtils.of(todo.getVersion())).body(todo);
   }
 
   @ApiOperation(value = "Create a new TODO",
@@ -90,20 +224,24 @@ public class TodoController {
       @ApiResponse(code = 409, message = "TODO with this ID already exists")
   })
   @PostMapping("/todo")
-  public ResponseEntity<Todo> addTodo(@Valid @RequestBody Todo todo) throws URISyntaxException {
-    try {
-      var createdTodo = todoService.create(todo);
-      return ResponseEntity
-          .created(new URI("/api/todo/" + createdTodo.getId()))
-          .body(createdTodo);
-
-    } catch (BadRequestException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-    } catch (ResourceAlreadyExistsException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.status(HttpStatus.CONFLICT).build();
-    }
+  public ResponseEntity<Todo> addTodo(@Valid @RequestBody Todo todo)
+      throws URISyntaxException, BadRequestException, ResourceAlreadyExistsException {
+    var createdTodo = todoService.create(todo);
+    return ResponseEntity
+        .created(new URI("/api/todo/" + createdTodo.getId()))
+        .body(createdTodo);
+  }
+
+  @ApiOperation(value = "Create many TODOs in a single transaction",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = "TodoBatchResult")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Batch processed, see the result of each item", response = TodoBatchResult.class),
+      @ApiResponse(code = 400, message = "Batch is empty or too large")
+  })
+  @PostMapping("/todos/batch")
+  public ResponseEntity<TodoBatchResult> addTodos(@RequestBody List<Todo> todos) throws BadRequestException {
+    return ResponseEntity.ok(todoService.createAll(todos));
   }
 
   @ApiOperation(value = "Update an existing TODO",
@@ -112,22 +250,17 @@ public class TodoController {
   @ApiResponses({
       @ApiResponse(code = 200, message = "Successful operation"),
       @ApiResponse(code = 400, message = "TODO message cant be empty"),
-      @ApiResponse(code = 404, message = "TODO not found")
+      @ApiResponse(code = 404, message = "TODO not found"),
+      @ApiResponse(code = 412, message = "TODO changed since the ETag in If-Match or the version in the body")
   })
   @PutMapping("/todo/{todoId}")
-  public ResponseEntity<Void> updateTodo(@Valid @RequestBody Todo todo, @PathVariable long todoId) {
-    try {
-      todo.setId(todoId);
-      todoService.updateTodo(todo);
-      return ResponseEntity.ok().build();
-
-    } catch (ResourceNotFoundException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.notFound().build();
-    } catch (BadRequestException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.badRequest().build();
-    }
+  public ResponseEntity<Void> updateTodo(@Valid @RequestBody Todo todo, @PathVariable long todoId,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+                                             throws ResourceNotFoundException, BadRequestException, PreconditionFailedException {
+    todo.setId(todoId);
+    var expectedVersion = ifMatch != null ? ETagUtils.expectedVersion(ifMatch) : todo.getVersion();
+    var updatedTodo = todoService.updateTodo(todo, expectedVersion);
+    return ResponseEntity.ok().eTag(ETagUtils.of(updatedTodo.getVersion())).build();
   }
 
   @ApiOperation(value = "Update an existing TODO message",
@@ -136,20 +269,36 @@ public class TodoController {
   @ApiResponses({
       @ApiResponse(code = 200, message = "Successful operation"),
       @ApiResponse(code = 400, message = "TODO message cant be empty"),
-      @ApiResponse(code = 404, message = "TODO not found")
+      @ApiResponse(code = 404, message = "TODO not found"),
+      @ApiResponse(code = 412, message = "TODO changed since the ETag in If-Match")
   })
   @PatchMapping("/todo/{todoId}")
-  public ResponseEntity<Void> updateTodoMessage(@PathVariable long todoId, @RequestBody Message message) {
-    try {
-      todoService.updateMessage(todoId, message.getMessage());
-      return ResponseEntity.ok().build();
-    } catch (ResourceNotFoundException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.notFound().build();
-    } catch (BadRequestException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.badRequest().build();
+  public ResponseEntity<Void> updateTodoMessage(@PathVariable long todoId, @RequestBody Message message,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+                                                    throws ResourceNotFoundException, BadRequestException, PreconditionFailedException {
+    todoService.updateMessage(todoId, message.getMessage(), ETagUtils.expectedVersion(ifMatch));
+    return ResponseEntity.ok().build();
+  }
+
+  @ApiOperation(value = "Mark an existing TODO as done or not done",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = "Todo")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation"),
+      @ApiResponse(code = 400, message = "TODO status is missing"),
+      @ApiResponse(code = 404, message = "TODO not found"),
+      @ApiResponse(code = 412, message = "TODO changed since the ETag in If-Match")
+  })
+  @PatchMapping("/todo/{todoId}/status")
+  public ResponseEntity<Void> updateTodoStatus(@PathVariable long todoId, @Valid @RequestBody Status status,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+                                                   throws ResourceNotFoundException, PreconditionFailedException, BadRequestException {
+    // Checked here as well, no Bean Validation provider is on the classpath to enforce @NotNull
+    if(status.getDone() == null) {
+      throw new BadRequestException("TODO status cannot be empty");
     }
+    todoService.updateStatus(todoId, status.getDone(), ETagUtils.expectedVersion(ifMatch));
+    return ResponseEntity.ok().build();
   }
 
   @ApiOperation(value = "Delete an existing TODO with ID",
@@ -160,13 +309,21 @@ public class TodoController {
       @ApiResponse(code = 404, message = "TODO not found")
   })
   @DeleteMapping("/todo/{todoId}")
-  public ResponseEntity<Void> deleteTodo(@PathVariable long todoId) {
-    try{
-      todoService.deleteById(todoId);
-      return ResponseEntity.ok().build();
-    } catch (ResourceNotFoundException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.notFound().build();
-    }
+  public ResponseEntity<Void> deleteTodo(@PathVariable long todoId) throws ResourceNotFoundException {
+    todoService.deleteById(todoId);
+    return ResponseEntity.ok().build();
+  }
+
+  @ApiOperation(value = "Delete all TODOs from user with userID, or only the done or not done ones",
+      notes = "Returns the number of deleted TODOs",
+      tags = SwaggerConfig.todoControllerTag,
+      produces = "Long")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation", response = Long.class)
+  })
+  @DeleteMapping("/todos/{userId}")
+  public ResponseEntity<Long> deleteAllByUserId(@PathVariable long userId,
+                                                @RequestParam(required = false) Boolean done) {
+    return ResponseEntity.ok(todoService.deleteAllByUserId(userId, done));
   }
 }
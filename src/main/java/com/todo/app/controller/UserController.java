@@ -2,17 +2,17 @@ package com.todo.app.controller;
 
 import com.todo.app.config.SwaggerConfig;
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoStats;
 import com.todo.app.entity.User;
 import com.todo.app.exceptions.BadRequestException;
 import com.todo.app.exceptions.ResourceAlreadyExistsException;
 import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.service.TodoStatsService;
 import com.todo.app.service.UserService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -33,9 +33,10 @@ import java.util.List;
 @RequestMapping("/user")
 public class UserController {
 
-  private final Logger logger = LoggerFactory.getLogger(this.getClass());
   @Autowired
   private UserService userService;
+  @Autowired
+  private TodoStatsService todoStatsService;
 
   @ApiOperation(value = "Query a user with ID:",
       tags = SwaggerConfig.userControllerTag,
@@ -45,13 +46,21 @@ public class UserController {
       @ApiResponse(code = 404, message = "User does not exist"),
   })
   @GetMapping("/{userId}")
-  public ResponseEntity<User> findById(@PathVariable long userId) {
-    try {
-      return ResponseEntity.ok(userService.findById(userId));
-    } catch (ResourceNotFoundException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.notFound().build();
-    }
+  public ResponseEntity<User> findById(@PathVariable long userId) throws ResourceNotFoundException {
+    return ResponseEntity.ok(userService.findById(userId));
+  }
+
+  @ApiOperation(value = "Count the TODOs of a user, in total, done and pending",
+      tags = SwaggerConfig.userControllerTag,
+      produces = "TodoStats")
+  @ApiResponses({
+      @ApiResponse(code = 200, message = "Successful operation", response = TodoStats.class),
+      @ApiResponse(code = 404, message = "User does not exist"),
+  })
+  @GetMapping("/{userId}/stats")
+  public ResponseEntity<TodoStats> findStats(@PathVariable long userId) throws ResourceNotFoundException {
+    userService.findById(userId);
+    return ResponseEntity.ok(todoStatsService.findByUserId(userId));
   }
 
   @ApiOperation(value = "List all user todos, redirects to api/todos/id",
@@ -74,16 +83,9 @@ public class UserController {
       @ApiResponse(code = 409, message = "User with this ID already exists")
   })
   @PostMapping("")
-  public ResponseEntity<User> addUser(@Valid @RequestBody User user) throws URISyntaxException {
-    try {
-      var newUser = userService.create(user);
-      return ResponseEntity.created(new URI("/" + newUser.getId())).body(newUser);
-    } catch (BadRequestException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.badRequest().build();
-    }catch (ResourceAlreadyExistsException ex) {
-      logger.error(ex.getMessage());
-      return ResponseEntity.status(HttpStatus.CONFLICT).build();
-    }
+  public ResponseEntity<User> addUser(@Valid @RequestBody User user)
+      throws URISyntaxException, BadRequestException, ResourceAlreadyExistsException {
+    var newUser = userService.create(user);
+    return ResponseEntity.created(new URI("/" + newUser.getId())).body(newUser);
   }
 }
@@ -0,0 +1,79 @@
+package com.todo.app.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Tolerance for replication lag. A TODO or user written less than {@code window} ago is
+ * read from the primary, older ones from the replica, so whoever wrote it, and the caches
+ * loaded right after, never see the state before the write. A TODO write also counts as a
+ * write of its owner, whose TODO list changed. A zero window reads everything from the
+ * replica.
+ */
+public class ReadYourWrites {
+
+  private final long windowNanos;
+  private final Ticker ticker;
+  private final Cache<Long, Boolean> users;
+  private final Cache<Long, Boolean> todos;
+  private volatile long lastWrite;
+
+  public ReadYourWrites(Duration window) {
+    this(window, Ticker.systemTicker());
+  }
+
+  public ReadYourWrites(Duration window, Ticker ticker) {
+    this.windowNanos = window.toNanos();
+    this.ticker = ticker;
+    this.users = windowNanos > 0 ? recent(window, ticker) : null;
+    this.todos = windowNanos > 0 ? recent(window, ticker) : null;
+    this.lastWrite = ticker.read() - windowNanos;
+  }
+
+  public void todoWritten(Long todoId, Long ownerId) {
+    if(todos != null && todoId != null) {
+      todos.put(todoId, Boolean.TRUE);
+    }
+    userWritten(ownerId);
+  }
+
+  public void userWritten(Long userId) {
+    if(users != null) {
+      if(userId != null) {
+        users.put(userId, Boolean.TRUE);
+      }
+      lastWrite = ticker.read();
+    }
+  }
+
+  public <T> T readTodo(Long todoId, Supplier<T> read) {
+    return read(todos != null && todoId != null && todos.getIfPresent(todoId) != null, read);
+  }
+
+  public <T> T readUser(Long userId, Supplier<T> read) {
+    return read(users != null && userId != null && users.getIfPresent(userId) != null, read);
+  }
+
+  /**
+   * Runs {@code read} on the primary while anything was written in the window.
+   */
+  public <T> T readAll(Supplier<T> read) {
+    return read(users != null && ticker.read() - lastWrite < windowNanos, read);
+  }
+
+  private static <T> T read(boolean written, Supplier<T> read) {
+    return written ? read.get() : RoutingDataSource.onReplica(read);
+  }
+
+  private static Cache<Long, Boolean> recent(Duration window, Ticker ticker) {
+    return Caffeine.newBuilder()
+        .expireAfterWrite(window)
+        .ticker(ticker)
+        .executor(Runnable::run)
+        .build();
+  }
+}
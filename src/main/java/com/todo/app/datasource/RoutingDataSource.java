@@ -0,0 +1,60 @@
+package com.todo.app.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends the read-only transactions of reads run through {@link #onReplica(Supplier)} to the
+ * replica pool, everything else to the primary. Reads opt in because only the caller knows
+ * whether it tolerates replication lag: the reads of a write, the rebuilds of the in-memory
+ * indexes and the log snapshots always see the primary.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * a transaction takes its connection before it is marked read-only.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+  public enum Route { PRIMARY, REPLICA }
+
+  private static final ThreadLocal<Boolean> replicaAllowed = new ThreadLocal<>();
+
+  public RoutingDataSource(DataSource primary, DataSource replica) {
+    setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+  }
+
+  /**
+   * Runs {@code read}, letting the read-only transactions it starts use the replica.
+   */
+  public static <T> T onReplica(Supplier<T> read) {
+    var previous = replicaAllowed.get();
+    replicaAllowed.set(Boolean.TRUE);
+    try {
+      return read.get();
+    } finally {
+      replicaAllowed.set(previous);
+    }
+  }
+
+  /**
+   * Whether the current thread runs inside {@link #onReplica(Supplier)}.
+   */
+  public static boolean isReplicaAllowed() {
+    return replicaAllowed.get() != null;
+  }
+
+  public static Route currentRoute() {
+    return isReplicaAllowed() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        ? Route.REPLICA
+        : Route.PRIMARY;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return currentRoute();
+  }
+}
@@ -0,0 +1,15 @@
+package com.todo.app.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+public class Status {
+  // A missing or misspelled field is rejected instead of read as not done
+  @NotNull
+  private Boolean done;
+
+}
@@ -7,13 +7,18 @@ import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import java.io.Serial;
@@ -22,7 +27,17 @@ import java.sql.Timestamp;
 
 @ApiModel(description = "Class representing a TODO in the application")
 @Entity
-@Table(name = "TODO")
+@Table(name = "TODO", indexes = {
+    // Equality columns first, then the range/sort column; the ID is implicitly the last key
+    @Index(name = "IDX_TODO_OWNER_DONE_UPDATED", columnList = "owner_id, done, updated_at"),
+    @Index(name = "IDX_TODO_OWNER_DONE_CREATED", columnList = "owner_id, done, created_at"),
+    @Index(name = "IDX_TODO_OWNER_UPDATED", columnList = "owner_id, updated_at"),
+    @Index(name = "IDX_TODO_OWNER_CREATED", columnList = "owner_id, created_at"),
+    @Index(name = "IDX_TODO_DONE_UPDATED", columnList = "done, updated_at"),
+    @Index(name = "IDX_TODO_DONE_CREATED", columnList = "done, created_at"),
+    @Index(name = "IDX_TODO_UPDATED", columnList = "updated_at"),
+    @Index(name = "IDX_TODO_CREATED", columnList = "created_at")
+})
 @Getter
 @Setter
 public class Todo implements Serializable {
@@ -30,12 +45,15 @@ public class Todo implements Serializable {
   @Serial
   private final static long serialVersionUID = 22465788L;
 
+  public static final int MAX_MESSAGE_LENGTH = 255;
+
   @ApiModelProperty(notes = "Unique identifier of a TODO",
       example = "1",
       required = true
   )
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_sequence")
+  @SequenceGenerator(name = "todo_sequence", sequenceName = "todo_sequence", allocationSize = 50)
   private Long id;
 
   @ApiModelProperty(notes = "TODO message",
@@ -44,7 +62,7 @@ public class Todo implements Serializable {
       position = 1
   )
   @NotBlank
-  @Size(max = 255)
+  @Size(max = MAX_MESSAGE_LENGTH)
   private String message;
 
   @ApiModelProperty(notes = "TODO status, can be done or not",
@@ -57,15 +75,23 @@ public class Todo implements Serializable {
       example = "2022-05-24T19:21:27.836+00:00"
   )
   @CreationTimestamp
+  @Column(name = "created_at")
   private Timestamp createdAt;
 
   @ApiModelProperty(notes = "Last timestamp update for this TODO",
       example = "2022-05-24T19:21:42.532+00:00"
   )
   @UpdateTimestamp
+  @Column(name = "updated_at")
   private Timestamp updatedAt;
 
-  @ManyToOne
+  @ApiModelProperty(notes = "Optimistic locking version, incremented by every update and sent as the ETag",
+      example = "0")
+  @Version
+  private Long version;
+
+  @ApiModelProperty(notes = "User owning this TODO, serialized as just its ID unless already loaded")
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "owner_id")
   private User owner;
 }
@@ -0,0 +1,27 @@
+package com.todo.app.entity;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@ApiModel(description = "Outcome of a single TODO in a batch request")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchItemResult {
+  @ApiModelProperty(notes = "Position of the TODO in the request array", example = "0")
+  private int index;
+
+  @ApiModelProperty(notes = "HTTP status this TODO would have had as a single request", example = "201")
+  private int status;
+
+  @ApiModelProperty(notes = "ID of the created TODO, null when it was rejected", example = "1")
+  private Long id;
+
+  @ApiModelProperty(notes = "Reason the TODO was rejected, null when it was created")
+  private String error;
+}
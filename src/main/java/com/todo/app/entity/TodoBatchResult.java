@@ -0,0 +1,23 @@
+package com.todo.app.entity;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@ApiModel(description = "Result of a batch TODO creation")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchResult {
+  @ApiModelProperty(notes = "IDs of the TODOs created, in request order")
+  private List<Long> createdIds;
+
+  @ApiModelProperty(notes = "One result per TODO in the request, in request order")
+  private List<TodoBatchItemResult> results;
+}
@@ -0,0 +1,18 @@
+package com.todo.app.entity;
+
+import com.todo.app.event.TodoEvent;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "A TODO of the user was created, updated or deleted")
+@Getter
+@AllArgsConstructor
+public class TodoChange {
+  @ApiModelProperty(notes = "What happened to the TODO", example = "UPDATED")
+  private final TodoEvent.Type type;
+
+  @ApiModelProperty(notes = "ID of the TODO, read it again unless it was deleted", example = "1")
+  private final Long todoId;
+}
@@ -0,0 +1,30 @@
+package com.todo.app.entity;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@ApiModel(description = "Changes of the TODOs of a user since a sync token")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChanges {
+  @ApiModelProperty(notes = "True when items is the whole list and replaces the client copy, because there was "
+      + "no token or it is older than the kept tombstones")
+  private boolean full;
+
+  @ApiModelProperty(notes = "TODOs created or updated since the token, ordered by update time")
+  private List<TodoSummary> items;
+
+  @ApiModelProperty(notes = "IDs of the TODOs deleted or given to another user since the token")
+  private List<Long> deletedIds;
+
+  @ApiModelProperty(notes = "Opaque token to send as since on the next sync", example = "AAABgPv6KBA")
+  private String next;
+}
@@ -0,0 +1,65 @@
+package com.todo.app.entity;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+
+@ApiModel(description = "Filters and sort order for listing TODOs")
+@Getter
+@Setter
+public class TodoFilter {
+  public static final String SORT_ID = "id";
+  public static final String SORT_CREATED_AT = "createdAt";
+  public static final String SORT_UPDATED_AT = "updatedAt";
+  public static final String ASCENDING = "asc";
+  public static final String DESCENDING = "desc";
+
+  @ApiModelProperty(notes = "Only TODOs of this user", example = "1")
+  private Long owner;
+
+  @ApiModelProperty(notes = "Only done or only pending TODOs", example = "false")
+  private Boolean done;
+
+  @ApiModelProperty(notes = "Created at or after this instant", example = "2022-05-24T00:00:00Z")
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private Instant createdAfter;
+
+  @ApiModelProperty(notes = "Created before this instant", example = "2022-05-25T00:00:00Z")
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private Instant createdBefore;
+
+  @ApiModelProperty(notes = "Updated at or after this instant", example = "2022-05-24T00:00:00Z")
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private Instant updatedAfter;
+
+  @ApiModelProperty(notes = "Updated before this instant", example = "2022-05-25T00:00:00Z")
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private Instant updatedBefore;
+
+  @ApiModelProperty(notes = "Sort field: id, createdAt or updatedAt", example = "updatedAt")
+  private String sort = SORT_ID;
+
+  @ApiModelProperty(notes = "Sort direction: asc or desc", example = "desc")
+  private String direction = ASCENDING;
+
+  public static TodoFilter byOwner(Long owner) {
+    var filter = new TodoFilter();
+    filter.setOwner(owner);
+    return filter;
+  }
+
+  /**
+   * True when this is the plain listing of one owner, which is what the owner list cache
+   * holds.
+   */
+  public boolean isOwnerListing() {
+    return owner != null && done == null
+        && createdAfter == null && createdBefore == null
+        && updatedAfter == null && updatedBefore == null
+        && SORT_ID.equals(sort) && ASCENDING.equals(direction);
+  }
+}
@@ -0,0 +1,12 @@
+package com.todo.app.entity;
+
+import java.sql.Timestamp;
+
+/**
+ * Aggregate that changes whenever a TODO of a list is created, updated or deleted.
+ */
+public interface TodoListVersion {
+  long getCount();
+
+  Timestamp getLastUpdatedAt();
+}
@@ -0,0 +1,12 @@
+package com.todo.app.entity;
+
+/**
+ * Number of TODOs, and of done ones, of an owner.
+ */
+public interface TodoOwnerCount {
+  Long getOwnerId();
+
+  long getTotal();
+
+  long getDone();
+}
@@ -0,0 +1,25 @@
+package com.todo.app.entity;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@ApiModel(description = "A page of TODOs ordered by ID")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoPage {
+  @ApiModelProperty(notes = "TODOs in this page")
+  private List<TodoSummary> items;
+
+  @ApiModelProperty(notes = "Opaque cursor for the next page, null on the last page",
+      example = "AAAAAAAAAGQ"
+  )
+  private String next;
+}
@@ -0,0 +1,24 @@
+package com.todo.app.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Owner and status of a TODO, the columns the owner index and the TODO counters need.
+ */
+@Getter
+@AllArgsConstructor
+public class TodoState {
+  /**
+   * JPQL select clause building a state from a {@code Todo t}.
+   */
+  public static final String SELECT = "select new com.todo.app.entity.TodoState(t.id, t.owner.id, t.done) from Todo t";
+
+  private final Long id;
+  private final Long ownerId;
+  private final boolean done;
+
+  public static TodoState of(Todo todo) {
+    return new TodoState(todo.getId(), todo.getOwner() == null ? null : todo.getOwner().getId(), todo.isDone());
+  }
+}
@@ -0,0 +1,23 @@
+package com.todo.app.entity;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@ApiModel(description = "TODO counts of a user")
+@Getter
+@AllArgsConstructor
+public class TodoStats {
+  @ApiModelProperty(notes = "ID of the user", example = "1")
+  private final Long userId;
+
+  @ApiModelProperty(notes = "Number of TODOs of the user", example = "10")
+  private final long total;
+
+  @ApiModelProperty(notes = "Number of TODOs of the user that are done", example = "4")
+  private final long done;
+
+  @ApiModelProperty(notes = "Number of TODOs of the user that are not done", example = "6")
+  private final long pending;
+}
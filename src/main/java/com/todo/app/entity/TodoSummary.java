@@ -0,0 +1,68 @@
+package com.todo.app.entity;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Read model of a TODO for list endpoints. Selected column by column, so reading it never
+ * loads the owner or goes through the persistence context.
+ */
+@ApiModel(description = "Summary of a TODO, with the owner reduced to its ID")
+@Getter
+@JsonSerialize(using = TodoSummarySerializer.class)
+public class TodoSummary {
+  /**
+   * JPQL select clause building a summary from a {@code Todo t}.
+   */
+  public static final String SELECT = "select new com.todo.app.entity.TodoSummary("
+      + "t.id, t.message, t.done, t.createdAt, t.updatedAt, t.owner.id) from Todo t";
+
+  @ApiModelProperty(notes = "Unique identifier of a TODO", example = "1")
+  private final Long id;
+
+  @ApiModelProperty(notes = "TODO message", example = "Create this rest API")
+  private final String message;
+
+  @ApiModelProperty(notes = "TODO status, can be done or not", example = "true")
+  private final boolean done;
+
+  @ApiModelProperty(notes = "Creation timestamp for this TODO", example = "2022-05-24T19:21:27.836+00:00")
+  private final Timestamp createdAt;
+
+  @ApiModelProperty(notes = "Last timestamp update for this TODO", example = "2022-05-24T19:21:42.532+00:00")
+  private final Timestamp updatedAt;
+
+  @ApiModelProperty(notes = "ID of the user owning this TODO", example = "1")
+  private final Long ownerId;
+
+  /**
+   * Takes {@link Date}s because that is the type Hibernate resolves timestamp columns to
+   * when matching the constructor of a {@code select new} expression.
+   */
+  public TodoSummary(Long id, String message, boolean done, Date createdAt, Date updatedAt, Long ownerId) {
+    this.id = id;
+    this.message = message;
+    this.done = done;
+    this.createdAt = toTimestamp(createdAt);
+    this.updatedAt = toTimestamp(updatedAt);
+    this.ownerId = ownerId;
+  }
+
+  public static TodoSummary from(Todo todo) {
+    var ownerId = todo.getOwner() == null ? null : todo.getOwner().getId();
+    return new TodoSummary(todo.getId(), todo.getMessage(), todo.isDone(),
+        todo.getCreatedAt(), todo.getUpdatedAt(), ownerId);
+  }
+
+  private static Timestamp toTimestamp(Date date) {
+    if(date == null || date instanceof Timestamp) {
+      return (Timestamp) date;
+    }
+    return new Timestamp(date.getTime());
+  }
+}
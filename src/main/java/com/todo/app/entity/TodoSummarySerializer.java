@@ -0,0 +1,54 @@
+package com.todo.app.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Writes the fields of a {@link TodoSummary} one by one, without going through bean
+ * properties. The object is written with its size, which binary encodings like CBOR use to
+ * skip the end marker. Timestamps follow the mapper: ISO-8601 strings in JSON, epoch
+ * milliseconds in the binary encodings, see {@code JacksonConfig}.
+ */
+public class TodoSummarySerializer extends StdSerializer<TodoSummary> {
+
+  private static final int FIELDS = 6;
+
+  public TodoSummarySerializer() {
+    super(TodoSummary.class);
+  }
+
+  @Override
+  public void serialize(TodoSummary summary, JsonGenerator generator, SerializerProvider provider) throws IOException {
+    generator.writeStartObject(summary, FIELDS);
+    writeLong(generator, "id", summary.getId());
+    generator.writeStringField("message", summary.getMessage());
+    generator.writeBooleanField("done", summary.isDone());
+    writeDate(generator, provider, "createdAt", summary.getCreatedAt());
+    writeDate(generator, provider, "updatedAt", summary.getUpdatedAt());
+    writeLong(generator, "ownerId", summary.getOwnerId());
+    generator.writeEndObject();
+  }
+
+  private static void writeLong(JsonGenerator generator, String name, Long value) throws IOException {
+    generator.writeFieldName(name);
+    if(value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(value);
+    }
+  }
+
+  private static void writeDate(JsonGenerator generator, SerializerProvider provider, String name, Date value)
+      throws IOException {
+    generator.writeFieldName(name);
+    if(value == null) {
+      generator.writeNull();
+    } else {
+      provider.defaultSerializeDateValue(value, generator);
+    }
+  }
+}
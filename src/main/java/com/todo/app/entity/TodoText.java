@@ -0,0 +1,12 @@
+package com.todo.app.entity;
+
+/**
+ * Projection with only the columns the search index needs.
+ */
+public interface TodoText {
+  Long getId();
+
+  Long getOwnerId();
+
+  String getMessage();
+}
@@ -0,0 +1,56 @@
+package com.todo.app.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+
+/**
+ * Record of a TODO that left the list of {@code ownerId}, because it was deleted or given to
+ * another user, so a delta sync can tell the client to drop it. Kept for the retention of
+ * {@link com.todo.app.service.TodoSyncService}.
+ */
+@Entity
+@Table(name = "TODO_TOMBSTONE", indexes = {
+    @Index(name = "IDX_TODO_TOMBSTONE_OWNER_DELETED", columnList = "owner_id, deleted_at"),
+    @Index(name = "IDX_TODO_TOMBSTONE_DELETED", columnList = "deleted_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class TodoTombstone {
+  /**
+   * JPQL statement recording the tombstones of the owned TODOs matched by a {@code where}
+   * clause on {@code Todo t} appended to it, in the same statement as their lookup.
+   */
+  public static final String INSERT = "insert into TodoTombstone (todoId, ownerId, deletedAt) "
+      + "select t.id, t.owner.id, cast(:deletedAt as timestamp) from Todo t";
+
+  // Only ever inserted a statement at a time, nothing to batch
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "todo_id", nullable = false)
+  private Long todoId;
+
+  @Column(name = "owner_id", nullable = false)
+  private Long ownerId;
+
+  @Column(name = "deleted_at", nullable = false)
+  private Timestamp deletedAt;
+
+  public TodoTombstone(Long todoId, Long ownerId, Timestamp deletedAt) {
+    this.todoId = todoId;
+    this.ownerId = ownerId;
+    this.deletedAt = deletedAt;
+  }
+}
@@ -0,0 +1,88 @@
+package com.todo.app.event;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoState;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+import java.util.Objects;
+
+/**
+ * Published by {@link com.todo.app.service.TodoService} after a TODO changed. Listeners that
+ * maintain derived data should use {@code @TransactionalEventListener(fallbackExecution = true)}
+ * so they only see committed changes.
+ */
+@Getter
+@AllArgsConstructor
+public class TodoEvent {
+  public enum Type { CREATED, UPDATED, DELETED }
+
+  private final Type type;
+  private final Long todoId;
+  /**
+   * Owner of the TODO after the change, or before it was deleted. Null when it has none or
+   * it was not known.
+   */
+  private final Long ownerId;
+  /**
+   * Owner before an update that changed it, null otherwise.
+   */
+  private final Long previousOwnerId;
+  /**
+   * State of the TODO after the change, null when it was deleted or partially updated.
+   */
+  private final Todo todo;
+  /**
+   * New message of a partial update, null when the message did not change.
+   */
+  private final String message;
+  /**
+   * New status of a partial update, null when the status did not change.
+   */
+  private final Boolean done;
+  /**
+   * Owner and status before the change, so listeners can derive what it changed without
+   * keeping their own copy of every TODO. Null for creates and message updates, which
+   * change neither.
+   */
+  private final TodoState previous;
+  /**
+   * True when the change is already in the mutation log, appended before it was written to
+   * the database.
+   */
+  @With
+  private final boolean logged;
+
+  public static TodoEvent created(Todo todo) {
+    return new TodoEvent(Type.CREATED, todo.getId(), ownerId(todo), null, todo, null, null, null, false);
+  }
+
+  public static TodoEvent updated(Todo todo, TodoState previous) {
+    var ownerId = ownerId(todo);
+    var previousOwnerId = previous.getOwnerId();
+    return new TodoEvent(Type.UPDATED, todo.getId(), ownerId,
+        Objects.equals(ownerId, previousOwnerId) ? null : previousOwnerId, todo, null, null, previous, false);
+  }
+
+  public static TodoEvent messageUpdated(Long todoId, Long ownerId, String message) {
+    return new TodoEvent(Type.UPDATED, todoId, ownerId, null, null, message, null, null, false);
+  }
+
+  /**
+   * A status that actually changed, the TODO had the opposite one before.
+   */
+  public static TodoEvent statusUpdated(Long todoId, Long ownerId, boolean done) {
+    return new TodoEvent(Type.UPDATED, todoId, ownerId, null, null, null, done,
+        new TodoState(todoId, ownerId, !done), false);
+  }
+
+  public static TodoEvent deleted(TodoState previous) {
+    return new TodoEvent(Type.DELETED, previous.getId(), previous.getOwnerId(), null, null, null, null, previous,
+        false);
+  }
+
+  private static Long ownerId(Todo todo) {
+    return todo.getOwner() == null ? null : todo.getOwner().getId();
+  }
+}
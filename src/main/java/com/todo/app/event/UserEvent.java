@@ -0,0 +1,29 @@
+package com.todo.app.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by {@link com.todo.app.service.UserService} after a user changed, with the same
+ * transactional semantics as {@link TodoEvent}.
+ */
+@Getter
+@AllArgsConstructor
+public class UserEvent {
+  public enum Type { CREATED, UPDATED, DELETED }
+
+  private final Type type;
+  private final Long userId;
+
+  public static UserEvent created(Long userId) {
+    return new UserEvent(Type.CREATED, userId);
+  }
+
+  public static UserEvent updated(Long userId) {
+    return new UserEvent(Type.UPDATED, userId);
+  }
+
+  public static UserEvent deleted(Long userId) {
+    return new UserEvent(Type.DELETED, userId);
+  }
+}
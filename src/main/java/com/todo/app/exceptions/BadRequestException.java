@@ -6,16 +6,20 @@ import lombok.Setter;
 import java.util.ArrayList;
 import java.util.List;
 
-
+/**
+ * Answered with 400, the messages describe what is invalid. No stack trace is captured.
+ */
 @Setter
 @Getter
 public class BadRequestException extends Exception{
   private List<String> exceptionMessages = new ArrayList<>();
 
-  public BadRequestException() {}
+  public BadRequestException() {
+    this(null);
+  }
 
   public BadRequestException(String message){
-    super(message);
+    super(message, null, false, false);
   }
 
   public void addException(String message) {
@@ -0,0 +1,14 @@
+package com.todo.app.exceptions;
+
+/**
+ * Answered with 412 when the version a client sent is stale. No stack trace is captured.
+ */
+public class PreconditionFailedException extends Exception {
+  public PreconditionFailedException(){
+    this(null);
+  }
+
+  public PreconditionFailedException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -1,9 +1,14 @@
 package com.todo.app.exceptions;
 
+/**
+ * Answered with 409. Created without a stack trace, the message says all a client needs.
+ */
 public class ResourceAlreadyExistsException extends Exception {
-  public ResourceAlreadyExistsException() {}
+  public ResourceAlreadyExistsException() {
+    this(null);
+  }
 
   public ResourceAlreadyExistsException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 }
@@ -1,11 +1,15 @@
 package com.todo.app.exceptions;
 
+/**
+ * Thrown for every lookup of a missing ID, which scanners and retrying clients do in bulk, so
+ * it carries no stack trace.
+ */
 public class ResourceNotFoundException extends Exception {
   public ResourceNotFoundException(){
-
+    this(null);
   }
 
   public ResourceNotFoundException(String message) {
-    super(message);
+    super(message, null, false, false);
   }
 }
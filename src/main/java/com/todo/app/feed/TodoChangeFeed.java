@@ -0,0 +1,249 @@
+package com.todo.app.feed;
+
+import com.todo.app.entity.TodoChange;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the subscribers to the changes of each owner's TODOs. Publishing only queues a
+ * change in the buffer of each subscriber of the owner; a few threads of {@code executor}
+ * write the buffers out, so an idle subscriber costs no thread and a slow one never holds up
+ * the writer of a change.
+ * <p>
+ * A buffer holds at most {@code bufferSize} changes. When a change arrives at a full buffer
+ * the buffered ones are dropped and the subscriber is sent a resync instead, after which it
+ * must read the whole list again; changes published before the resync went out are covered by
+ * that read and are dropped too.
+ * <p>
+ * A send still running after {@code sendTimeout}, to a client that stopped reading, drops its
+ * subscriber when {@link #dropStalled()} runs: it gets nothing more, so its buffer no longer
+ * takes turns of the writing threads from the others. The blocked write itself ends with the
+ * write timeout of the connection, which fails it.
+ */
+public class TodoChangeFeed {
+
+  private static final Object HEARTBEAT = new Object();
+
+  private final Executor executor;
+  private final int bufferSize;
+  private final long sendTimeoutNanos;
+  private final LongSupplier nanoClock;
+  private final Map<Long, Set<Subscriber>> subscribersByOwner = new ConcurrentHashMap<>();
+  private final AtomicInteger subscriberCount = new AtomicInteger();
+  private final AtomicLong resyncs = new AtomicLong();
+  private final AtomicLong stalled = new AtomicLong();
+
+  public TodoChangeFeed(Executor executor, int bufferSize, Duration sendTimeout) {
+    this(executor, bufferSize, sendTimeout, System::nanoTime);
+  }
+
+  public TodoChangeFeed(Executor executor, int bufferSize, Duration sendTimeout, LongSupplier nanoClock) {
+    this.executor = executor;
+    this.bufferSize = bufferSize;
+    this.sendTimeoutNanos = sendTimeout.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Receives the changes of one subscriber, always from one thread at a time. A failure
+   * ends the subscription.
+   */
+  public interface Sink {
+    void change(TodoChange change) throws IOException;
+
+    void resync() throws IOException;
+
+    void heartbeat() throws IOException;
+  }
+
+  /**
+   * Starts sending the changes of the TODOs of {@code ownerId} to {@code sink}. The first
+   * message is a resync when {@code resync} is true, a heartbeat otherwise, so the sink is
+   * written to right away.
+   */
+  public Subscriber subscribe(long ownerId, Sink sink, boolean resync) {
+    var subscriber = new Subscriber(ownerId, sink);
+    subscribersByOwner.compute(ownerId, (id, subscribers) -> {
+      subscribers = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+      subscribers.add(subscriber);
+      return subscribers;
+    });
+    subscriberCount.incrementAndGet();
+    if(resync) {
+      subscriber.offer(null);
+    } else {
+      subscriber.heartbeat();
+    }
+    return subscriber;
+  }
+
+  public void unsubscribe(Subscriber subscriber) {
+    subscriber.close();
+  }
+
+  public void publish(long ownerId, TodoChange change) {
+    var subscribers = subscribersByOwner.get(ownerId);
+    if(subscribers != null) {
+      subscribers.forEach(x -> x.offer(change));
+    }
+  }
+
+  /**
+   * Sends a heartbeat to every subscriber with nothing buffered, which keeps idle connections
+   * open through proxies and finds the ones closed by their client.
+   */
+  public void heartbeat() {
+    subscribersByOwner.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+  }
+
+  /**
+   * Drops the subscribers whose current send started more than {@code sendTimeout} ago.
+   */
+  public void dropStalled() {
+    var now = nanoClock.getAsLong();
+    subscribersByOwner.values().forEach(subscribers -> subscribers.forEach(x -> {
+      var started = x.sendStartedNanos;
+      if(started != 0 && now - started > sendTimeoutNanos) {
+        x.close();
+        stalled.incrementAndGet();
+      }
+    }));
+  }
+
+  public int subscriberCount() {
+    return subscriberCount.get();
+  }
+
+  /**
+   * Resyncs sent so far because a buffer overflowed.
+   */
+  public long resyncCount() {
+    return resyncs.get();
+  }
+
+  /**
+   * Subscribers dropped so far because a send did not finish in time.
+   */
+  public long stalledCount() {
+    return stalled.get();
+  }
+
+  public class Subscriber {
+    private final long ownerId;
+    private final Sink sink;
+    // Guarded by this
+    private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+    private boolean resyncPending;
+    private boolean draining;
+    private boolean closed;
+    // Start of the send in progress, 0 when none
+    private volatile long sendStartedNanos;
+
+    private Subscriber(long ownerId, Sink sink) {
+      this.ownerId = ownerId;
+      this.sink = sink;
+    }
+
+    /**
+     * Buffers {@code change}, null for a resync, and starts draining the buffer unless it
+     * already is.
+     */
+    private void offer(TodoChange change) {
+      synchronized(this) {
+        if(closed) {
+          return;
+        }
+        if(change == null) {
+          buffer.clear();
+          resyncPending = true;
+        } else if(resyncPending) {
+          return;
+        } else if(buffer.size() == bufferSize) {
+          buffer.clear();
+          resyncPending = true;
+          resyncs.incrementAndGet();
+        } else {
+          buffer.add(change);
+        }
+        drainLater();
+      }
+    }
+
+    private void heartbeat() {
+      synchronized(this) {
+        if(!closed && !resyncPending && buffer.isEmpty()) {
+          buffer.add(HEARTBEAT);
+          drainLater();
+        }
+      }
+    }
+
+    private void drainLater() {
+      if(!draining) {
+        draining = true;
+        executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      while(true) {
+        Object next;
+        synchronized(this) {
+          if(closed) {
+            return;
+          }
+          if(resyncPending) {
+            resyncPending = false;
+            next = null;
+          } else {
+            next = buffer.poll();
+            if(next == null) {
+              draining = false;
+              return;
+            }
+          }
+        }
+
+        sendStartedNanos = Math.max(1, nanoClock.getAsLong());
+        try {
+          if(next == null) {
+            sink.resync();
+          } else if(next == HEARTBEAT) {
+            sink.heartbeat();
+          } else {
+            sink.change((TodoChange) next);
+          }
+        } catch (IOException | RuntimeException ex) {
+          close();
+          return;
+        } finally {
+          sendStartedNanos = 0;
+        }
+      }
+    }
+
+    private void close() {
+      synchronized(this) {
+        if(closed) {
+          return;
+        }
+        closed = true;
+        buffer.clear();
+      }
+      subscribersByOwner.computeIfPresent(ownerId, (id, subscribers) -> {
+        subscribers.remove(this);
+        return subscribers.isEmpty() ? null : subscribers;
+      });
+      subscriberCount.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.todo.app.index;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Map from {@code long} to {@code long} in two flat arrays, with open addressing and linear
+ * probing, so an entry costs two array slots instead of a node and two boxed values.
+ * Removals shift the following entries of the probe sequence back, there are no tombstones.
+ * {@link #FREE} cannot be used as a key. Not thread safe.
+ */
+public class LongLongHashMap {
+
+  public static final long FREE = Long.MIN_VALUE;
+
+  private static final int MIN_CAPACITY = 16;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private long[] values;
+  private int size;
+  private int shift;
+  private int resizeAt;
+
+  public LongLongHashMap() {
+    this(0);
+  }
+
+  public LongLongHashMap(int expectedSize) {
+    var capacity = MIN_CAPACITY;
+    // Kept at most three quarters full
+    while(capacity * 3L / 4 < expectedSize) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Value of {@code key}, {@code missing} when there is none.
+   */
+  public long get(long key, long missing) {
+    var slot = find(key);
+    return keys[slot] == FREE ? missing : values[slot];
+  }
+
+  public boolean containsKey(long key) {
+    return keys[find(key)] != FREE;
+  }
+
+  /**
+   * Maps {@code key} to {@code value} and returns the previous value, {@code missing} when
+   * there was none.
+   */
+  public long put(long key, long value, long missing) {
+    if(key == FREE) {
+      throw new IllegalArgumentException("Cannot use " + FREE + " as a key");
+    }
+
+    var slot = find(key);
+    if(keys[slot] != FREE) {
+      var previous = values[slot];
+      values[slot] = value;
+      return previous;
+    }
+
+    keys[slot] = key;
+    values[slot] = value;
+    if(++size > resizeAt) {
+      resize();
+    }
+    return missing;
+  }
+
+  /**
+   * Removes {@code key} and returns its value, {@code missing} when there was none.
+   */
+  public long remove(long key, long missing) {
+    var slot = find(key);
+    if(keys[slot] == FREE) {
+      return missing;
+    }
+
+    var previous = values[slot];
+    var mask = keys.length - 1;
+    // Moves back every entry of the probe sequence that would no longer be found past the hole
+    var hole = slot;
+    for(var next = (hole + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+      var home = home(keys[next]);
+      if(((next - home) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+    }
+    keys[hole] = FREE;
+    --size;
+    return previous;
+  }
+
+  public void forEachKey(LongConsumer consumer) {
+    for(var key : keys) {
+      if(key != FREE) {
+        consumer.accept(key);
+      }
+    }
+  }
+
+  /**
+   * Slot holding {@code key}, or the free slot where it would be inserted.
+   */
+  private int find(long key) {
+    var mask = keys.length - 1;
+    var slot = home(key);
+    while(keys[slot] != FREE && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int home(long key) {
+    return (int) ((key * GOLDEN_RATIO) >>> shift);
+  }
+
+  private void resize() {
+    var oldKeys = keys;
+    var oldValues = values;
+    allocate(keys.length << 1);
+    for(int i = 0; i < oldKeys.length; ++i) {
+      if(oldKeys[i] != FREE) {
+        var slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new long[capacity];
+    Arrays.fill(keys, FREE);
+    shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    resizeAt = capacity * 3 / 4;
+  }
+}
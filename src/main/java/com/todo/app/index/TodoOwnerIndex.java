@@ -0,0 +1,243 @@
+package com.todo.app.index;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * IDs of the TODOs of every owner, held in primitive arrays only: an owner maps to a slot
+ * holding the sorted {@code long[]} of its TODO IDs, and each TODO maps to its owner, because
+ * deletes only know the TODO ID. Neither map allocates per entry, so 10M TODOs cost about
+ * 16 bytes per hash slot plus 8 bytes per ID in the owner lists, and a seek is one hash
+ * probe and one array copy.
+ * <p>
+ * The index is only complete once built from the database, see {@link #beginBuild()}; until
+ * then {@link #find(long)} returns null and callers must read the database.
+ */
+public class TodoOwnerIndex {
+
+  private static final long[] EMPTY = new long[0];
+  private static final int MIN_LIST_CAPACITY = 4;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Entries entries;
+  private volatile boolean built;
+  // Non null while a rebuild runs: IDs changed incrementally, which the rebuild must not overwrite
+  private LongLongHashMap changedDuringBuild;
+
+  public TodoOwnerIndex() {
+    this(0);
+  }
+
+  public TodoOwnerIndex(int expectedTodos) {
+    this.entries = new Entries(expectedTodos);
+  }
+
+  /**
+   * Records a created TODO, or the owner of an updated one. A TODO without an owner is
+   * removed.
+   */
+  public void put(long todoId, Long ownerId) {
+    lock.writeLock().lock();
+    try {
+      entries.put(todoId, ownerId);
+      changed(todoId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(long todoId) {
+    lock.writeLock().lock();
+    try {
+      entries.put(todoId, null);
+      changed(todoId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * IDs of the TODOs of {@code ownerId} in ascending order, null while the index is not
+   * built.
+   */
+  public long[] find(long ownerId) {
+    lock.readLock().lock();
+    try {
+      return built ? entries.find(ownerId) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Owner of {@code todoId}, null when the TODO has none or is not indexed. Answers from
+   * what is indexed so far even while the index is not built.
+   */
+  public Long findOwner(long todoId) {
+    lock.readLock().lock();
+    try {
+      var ownerId = entries.ownerByTodo.get(todoId, LongLongHashMap.FREE);
+      return ownerId == LongLongHashMap.FREE ? null : ownerId;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean isBuilt() {
+    return built;
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return entries.ownerByTodo.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Starts a rebuild. Changes recorded from now on win over the owners passed to
+   * {@link #finishBuild(TodoOwnerIndex)}, which were read from a possibly older snapshot.
+   */
+  public void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      changedDuringBuild = new LongLongHashMap();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces every entry with the ones of {@code snapshot}, a fresh instance filled from the
+   * database, keeping the changes recorded since {@link #beginBuild()}.
+   */
+  public void finishBuild(TodoOwnerIndex snapshot) {
+    lock.writeLock().lock();
+    try {
+      var rebuilt = snapshot.entries;
+      changedDuringBuild.forEachKey(id -> {
+        var ownerId = entries.ownerByTodo.get(id, LongLongHashMap.FREE);
+        rebuilt.put(id, ownerId == LongLongHashMap.FREE ? null : ownerId);
+      });
+      entries = rebuilt;
+      changedDuringBuild = null;
+      built = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void changed(long todoId) {
+    if(changedDuringBuild != null) {
+      changedDuringBuild.put(todoId, 0, 0);
+    }
+  }
+
+  /**
+   * The maps and owner lists, swapped as a whole by a rebuild. Slots of owners left without
+   * TODOs are reused.
+   */
+  private static class Entries {
+    private final LongLongHashMap ownerByTodo;
+    private final LongLongHashMap slotByOwner = new LongLongHashMap();
+    private long[][] lists = new long[MIN_LIST_CAPACITY][];
+    private int[] counts = new int[MIN_LIST_CAPACITY];
+    private int[] freeSlots = new int[MIN_LIST_CAPACITY];
+    private int freeCount;
+    private int nextSlot;
+
+    private Entries(int expectedTodos) {
+      this.ownerByTodo = new LongLongHashMap(expectedTodos);
+    }
+
+    private void put(long todoId, Long ownerId) {
+      var previous = ownerId == null
+          ? ownerByTodo.remove(todoId, LongLongHashMap.FREE)
+          : ownerByTodo.put(todoId, ownerId, LongLongHashMap.FREE);
+      if(ownerId != null && previous == ownerId) {
+        return;
+      }
+      if(previous != LongLongHashMap.FREE) {
+        removeFromList(previous, todoId);
+      }
+      if(ownerId != null) {
+        addToList(ownerId, todoId);
+      }
+    }
+
+    private long[] find(long ownerId) {
+      var slot = (int) slotByOwner.get(ownerId, -1);
+      return slot < 0 ? EMPTY : Arrays.copyOf(lists[slot], counts[slot]);
+    }
+
+    private void addToList(long ownerId, long todoId) {
+      var slot = (int) slotByOwner.get(ownerId, -1);
+      if(slot < 0) {
+        slot = allocateSlot();
+        slotByOwner.put(ownerId, slot, -1);
+      }
+
+      var list = lists[slot];
+      var count = counts[slot];
+      // IDs come from a sequence, so a new TODO almost always goes at the end
+      var index = count == 0 || list[count - 1] < todoId ? count : Arrays.binarySearch(list, 0, count, todoId);
+      if(index >= 0 && index < count) {
+        return;
+      }
+      index = index < 0 ? -index - 1 : index;
+
+      if(count == list.length) {
+        list = lists[slot] = Arrays.copyOf(list, count + (count >> 1));
+      }
+      System.arraycopy(list, index, list, index + 1, count - index);
+      list[index] = todoId;
+      counts[slot] = count + 1;
+    }
+
+    private void removeFromList(long ownerId, long todoId) {
+      var slot = (int) slotByOwner.get(ownerId, -1);
+      if(slot < 0) {
+        return;
+      }
+
+      var list = lists[slot];
+      var count = counts[slot];
+      var index = Arrays.binarySearch(list, 0, count, todoId);
+      if(index < 0) {
+        return;
+      }
+      System.arraycopy(list, index + 1, list, index, count - index - 1);
+      counts[slot] = --count;
+
+      if(count == 0) {
+        slotByOwner.remove(ownerId, -1);
+        lists[slot] = null;
+        if(freeCount == freeSlots.length) {
+          freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+        }
+        freeSlots[freeCount++] = slot;
+      } else if(count < list.length >> 2 && list.length > MIN_LIST_CAPACITY) {
+        lists[slot] = Arrays.copyOf(list, Math.max(MIN_LIST_CAPACITY, count << 1));
+      }
+    }
+
+    private int allocateSlot() {
+      int slot;
+      if(freeCount > 0) {
+        slot = freeSlots[--freeCount];
+      } else {
+        if(nextSlot == lists.length) {
+          lists = Arrays.copyOf(lists, nextSlot << 1);
+          counts = Arrays.copyOf(counts, nextSlot << 1);
+        }
+        slot = nextSlot++;
+      }
+      lists[slot] = new long[MIN_LIST_CAPACITY];
+      counts[slot] = 0;
+      return slot;
+    }
+  }
+}
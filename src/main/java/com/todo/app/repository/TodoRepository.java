@@ -1,8 +1,132 @@
 package com.todo.app.repository;
 
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoListVersion;
+import com.todo.app.entity.TodoOwnerCount;
+import com.todo.app.entity.TodoState;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.entity.TodoText;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface TodoRepository extends CrudRepository<Todo, Long>, JpaSpecificationExecutor<Todo> {
+import javax.persistence.QueryHint;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface TodoRepository extends CrudRepository<Todo, Long>, JpaSpecificationExecutor<Todo>, TodoRepositoryCustom {
+
+  int STREAM_FETCH_SIZE = 500;
+
+  /**
+   * Forward-only cursor over the summaries of every TODO. Must be consumed inside a
+   * transaction and closed afterwards; rows are fetched from the driver
+   * {@value #STREAM_FETCH_SIZE} at a time and never enter the persistence context.
+   */
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true"),
+      @QueryHint(name = HINT_CACHEABLE, value = "false")
+  })
+  @Query(TodoSummary.SELECT + " order by t.id")
+  Stream<TodoSummary> streamAllSummaries();
+
+  /**
+   * Same as {@link #streamAllSummaries()} restricted to the TODOs owned by {@code ownerId}.
+   */
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true"),
+      @QueryHint(name = HINT_CACHEABLE, value = "false")
+  })
+  @Query(TodoSummary.SELECT + " where t.owner.id = :ownerId order by t.id")
+  Stream<TodoSummary> streamAllSummariesByOwnerId(@Param("ownerId") Long ownerId);
+
+  @Transactional(readOnly = true)
+  @Query(TodoSummary.SELECT + " where t.id in :ids")
+  List<TodoSummary> findAllSummariesById(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Forward-only cursor over the text of the TODOs with IDs in {@code [fromId, toId]},
+   * without loading entities.
+   */
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select t.id as id, t.owner.id as ownerId, t.message as message from Todo t where t.id between :fromId and :toId")
+  Stream<TodoText> streamTextByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+  /**
+   * Forward-only cursor over the owner and status of every TODO, without loading entities.
+   */
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query(TodoState.SELECT)
+  Stream<TodoState> streamAllStates();
+
+  /**
+   * Counts grouped by owner, answered from the {@code (owner_id, done, ...)} index: one row
+   * per owner crosses the connection instead of one per TODO.
+   */
+  @Query("select t.owner.id as ownerId, count(t) as total, sum(case when t.done = true then 1 else 0 end) as done "
+      + "from Todo t where t.owner is not null group by t.owner.id")
+  List<TodoOwnerCount> countByOwner();
+
+  @Query("select min(t.id) from Todo t")
+  Long findMinId();
+
+  @Query("select max(t.id) from Todo t")
+  Long findMaxId();
+
+  @Query("select t.version from Todo t where t.id = :id")
+  Optional<Long> findVersionById(@Param("id") Long id);
+
+  /**
+   * Answered from the owner indexes alone, without reading any TODO row.
+   */
+  @Transactional(readOnly = true)
+  @Query("select count(t) as count, max(t.updatedAt) as lastUpdatedAt from Todo t where t.owner.id = :ownerId")
+  TodoListVersion findListVersionByOwnerId(@Param("ownerId") Long ownerId);
+
+  /**
+   * Sets the status of a TODO with a single UPDATE, without loading it first. When
+   * {@code version} is not null the TODO is only updated if it still has this version. A TODO
+   * that already has the status is left alone, so an updated row always had the opposite one.
+   *
+   * @return number of updated rows, 0 when there is no TODO with this ID and version or it
+   * already has this status
+   */
+  @Transactional
+  @Modifying
+  @Query("update Todo t set t.done = :done, t.updatedAt = :updatedAt, t.version = t.version + 1 "
+      + "where t.id = :id and t.done <> :done and (:version is null or t.version = :version)")
+  int updateDone(@Param("id") Long id, @Param("done") boolean done, @Param("version") Long version,
+                 @Param("updatedAt") Timestamp updatedAt);
+
+  /**
+   * Sets the message of a TODO with a single UPDATE, without loading it first. When
+   * {@code version} is not null the TODO is only updated if it still has this version.
+   *
+   * @return number of updated rows, 0 when there is no TODO with this ID and version
+   */
+  @Transactional
+  @Modifying
+  @Query("update Todo t set t.message = :message, t.updatedAt = :updatedAt, t.version = t.version + 1 "
+      + "where t.id = :id and (:version is null or t.version = :version)")
+  int updateMessage(@Param("id") Long id, @Param("message") String message, @Param("version") Long version,
+                    @Param("updatedAt") Timestamp updatedAt);
 }
@@ -0,0 +1,46 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoState;
+import com.todo.app.entity.TodoSummary;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+public interface TodoRepositoryCustom {
+  /**
+   * Runs the specification with a row limit and no count query, which is what keyset
+   * pagination needs ({@link org.springframework.data.domain.Page} always issues a count).
+   * Only the summary columns are selected, so no entity is loaded.
+   */
+  List<TodoSummary> findSummaries(Specification<Todo> spec, Sort sort, int limit);
+
+  /**
+   * Deletes, in one transaction, the first {@code limit} TODOs matching {@code spec} with an
+   * ID greater than {@code afterId}. Only the IDs, owners and statuses are read, locked so
+   * the DELETE removes exactly those rows, and the tombstones of the owned ones are recorded
+   * at {@code deletedAt} in the same transaction.
+   *
+   * @return states of the deleted TODOs in ascending ID order, fewer than {@code limit} once
+   * the last chunk was deleted
+   */
+  List<TodoState> deleteChunk(Specification<Todo> spec, long afterId, int limit, Timestamp deletedAt);
+
+  /**
+   * Deletes the TODO {@code id} with a single DELETE that hands back the owner and status the
+   * row had, then records its tombstone at {@code deletedAt} when it had an owner. No read of
+   * the row comes first, the DELETE itself decides whether the TODO existed.
+   *
+   * @return state of the deleted TODO, empty when there is no TODO with this ID
+   */
+  Optional<TodoState> deleteReturningState(Long id, Timestamp deletedAt);
+
+  /**
+   * Next TODO ID from the same generator, and pooled block of the sequence, as the IDs
+   * Hibernate assigns on persist, for rows inserted without going through it.
+   */
+  long nextId();
+}
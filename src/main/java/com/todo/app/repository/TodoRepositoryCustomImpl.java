@@ -0,0 +1,115 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoState;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.entity.TodoTombstone;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+
+  // H2 data change delta table: the rows as they were before the DELETE, from the DELETE itself
+  private static final String DELETE_RETURNING_STATE = "select id, owner_id, done from old table (delete from todo where id = :id)";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<TodoSummary> findSummaries(Specification<Todo> spec, Sort sort, int limit) {
+    var criteriaBuilder = entityManager.getCriteriaBuilder();
+    var query = criteriaBuilder.createQuery(TodoSummary.class);
+    var root = query.from(Todo.class);
+
+    query.select(criteriaBuilder.construct(TodoSummary.class,
+        root.get("id"),
+        root.get("message"),
+        root.get("done"),
+        root.get("createdAt"),
+        root.get("updatedAt"),
+        root.get("owner").get("id")));
+
+    var predicate = spec.toPredicate(root, query, criteriaBuilder);
+    if(predicate != null) {
+      query.where(predicate);
+    }
+    query.orderBy(toOrders(sort, root, criteriaBuilder));
+
+    return entityManager.createQuery(query)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  @Override
+  @Transactional
+  public List<TodoState> deleteChunk(Specification<Todo> spec, long afterId, int limit, Timestamp deletedAt) {
+    var criteriaBuilder = entityManager.getCriteriaBuilder();
+    var query = criteriaBuilder.createQuery(TodoState.class);
+    var root = query.from(Todo.class);
+
+    var after = criteriaBuilder.parameter(Long.class);
+    var predicate = criteriaBuilder.greaterThan(root.get("id"), after);
+    var filter = spec.toPredicate(root, query, criteriaBuilder);
+    query.select(criteriaBuilder.construct(TodoState.class, root.get("id"), root.get("owner").get("id"),
+            root.get("done")))
+        .where(filter == null ? predicate : criteriaBuilder.and(filter, predicate))
+        .orderBy(criteriaBuilder.asc(root.get("id")));
+
+    var states = entityManager.createQuery(query)
+        .setParameter(after, afterId)
+        .setMaxResults(limit)
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList();
+    var ids = states.stream().map(TodoState::getId).toList();
+
+    if(!ids.isEmpty()) {
+      entityManager.createQuery(TodoTombstone.INSERT + " where t.id in :ids and t.owner is not null")
+          .setParameter("ids", ids)
+          .setParameter("deletedAt", deletedAt)
+          .executeUpdate();
+      entityManager.createQuery("delete from Todo t where t.id in :ids")
+          .setParameter("ids", ids)
+          .executeUpdate();
+    }
+    return states;
+  }
+
+  @Override
+  @Transactional
+  public Optional<TodoState> deleteReturningState(Long id, Timestamp deletedAt) {
+    List<?> rows = entityManager.createNativeQuery(DELETE_RETURNING_STATE)
+        .setParameter("id", id)
+        .getResultList();
+    if(rows.isEmpty()) {
+      return Optional.empty();
+    }
+
+    var row = (Object[]) rows.get(0);
+    var state = new TodoState(((Number) row[0]).longValue(), row[1] == null ? null : ((Number) row[1]).longValue(),
+        (Boolean) row[2]);
+    if(state.getOwnerId() != null) {
+      entityManager.persist(new TodoTombstone(id, state.getOwnerId(), deletedAt));
+    }
+    return Optional.of(state);
+  }
+
+  @Override
+  @Transactional
+  public long nextId() {
+    var session = entityManager.unwrap(SharedSessionContractImplementor.class);
+    var generator = session.getFactory().getMetamodel().entityPersister(Todo.class).getIdentifierGenerator();
+    return (Long) generator.generate(session, null);
+  }
+}
@@ -0,0 +1,32 @@
+package com.todo.app.repository;
+
+import com.todo.app.entity.TodoTombstone;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface TodoTombstoneRepository extends CrudRepository<TodoTombstone, Long> {
+
+  /**
+   * IDs of the TODOs that left the list of {@code ownerId} at or after {@code since}, a seek
+   * on the {@code (owner_id, deleted_at)} index.
+   */
+  @Transactional(readOnly = true)
+  @Query("select distinct t.todoId from TodoTombstone t where t.ownerId = :ownerId and t.deletedAt >= :since")
+  List<Long> findTodoIdsByOwnerIdDeletedSince(@Param("ownerId") Long ownerId, @Param("since") Timestamp since);
+
+  /**
+   * Deletes the tombstones recorded before {@code before} with a single DELETE.
+   *
+   * @return number of deleted tombstones
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from TodoTombstone t where t.deletedAt < :before")
+  int deleteByDeletedAtBefore(@Param("before") Timestamp before);
+}
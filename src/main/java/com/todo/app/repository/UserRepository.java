@@ -1,7 +1,21 @@
 package com.todo.app.repository;
 
 import com.todo.app.entity.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends CrudRepository<User, Long> {
+
+  /**
+   * Deletes a user with a single DELETE, without loading it first.
+   *
+   * @return number of deleted rows, 0 when there is no user with this ID
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from User u where u.id = :id")
+  int removeById(@Param("id") Long id);
 }
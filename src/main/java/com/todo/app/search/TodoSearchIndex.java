@@ -0,0 +1,207 @@
+package com.todo.app.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over TODO messages: every term maps to the IDs of the TODOs that
+ * contain it and how often. Terms are kept sorted, so a query term also matches every term
+ * it is a prefix of. A TODO matches when each query term matches; results are ranked by
+ * tf-idf, with exact term matches weighing more than prefix matches.
+ */
+public class TodoSearchIndex {
+
+  private static final Pattern separator = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final double prefixMatchWeight = 0.5;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+  private final Map<Long, Document> documents = new HashMap<>();
+  // Non null while a rebuild runs: IDs changed incrementally, which the rebuild must not overwrite
+  private Set<Long> changedDuringBuild;
+
+  private record Document(Long ownerId, Map<String, Integer> termFrequencies) {}
+
+  public static List<String> tokenize(String text) {
+    if(text == null) {
+      return List.of();
+    }
+    return Arrays.stream(separator.split(text.toLowerCase(Locale.ROOT)))
+        .filter(x -> !x.isEmpty())
+        .toList();
+  }
+
+  public void index(Long id, Long ownerId, String message) {
+    lock.writeLock().lock();
+    try {
+      removeDocument(id);
+      addDocument(id, ownerId, message);
+      if(changedDuringBuild != null) {
+        changedDuringBuild.add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the message of a TODO, keeping the owner it was indexed with.
+   */
+  public void updateMessage(Long id, String message) {
+    lock.writeLock().lock();
+    try {
+      var document = documents.get(id);
+      removeDocument(id);
+      addDocument(id, document == null ? null : document.ownerId(), message);
+      if(changedDuringBuild != null) {
+        changedDuringBuild.add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeDocument(id);
+      if(changedDuringBuild != null) {
+        changedDuringBuild.add(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * IDs of the best {@code limit} TODOs matching every term of {@code query}, best first,
+   * optionally restricted to the TODOs of {@code ownerId}.
+   */
+  public List<Long> search(String query, Long ownerId, int limit) {
+    var terms = new HashSet<>(tokenize(query));
+    if(terms.isEmpty()) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      Map<Long, Double> scores = null;
+      for(var term : terms) {
+        var termScores = scoreTerm(term, ownerId);
+        if(scores == null) {
+          scores = termScores;
+        } else {
+          scores.keySet().retainAll(termScores.keySet());
+          scores.replaceAll((id, score) -> score + termScores.get(id));
+        }
+
+        if(scores.isEmpty()) {
+          return List.of();
+        }
+      }
+
+      return scores.entrySet().stream()
+          .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+              .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+          .limit(limit)
+          .map(Map.Entry::getKey)
+          .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Starts a rebuild. Changes indexed from now on win over the documents merged by
+   * {@link #finishBuild(List)}, which were read from a possibly older snapshot.
+   */
+  public void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      changedDuringBuild = new HashSet<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Merges partial indexes built in parallel over disjoint ranges of TODOs.
+   */
+  public void finishBuild(List<TodoSearchIndex> partials) {
+    lock.writeLock().lock();
+    try {
+      for(var partial : partials) {
+        partial.documents.forEach((id, document) -> {
+          if(!changedDuringBuild.contains(id) && !documents.containsKey(id)) {
+            documents.put(id, document);
+            document.termFrequencies().forEach((term, frequency) ->
+                postings.computeIfAbsent(term, x -> new HashMap<>()).put(id, frequency));
+          }
+        });
+      }
+      changedDuringBuild = null;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Map<Long, Double> scoreTerm(String term, Long ownerId) {
+    Map<Long, Double> scores = new HashMap<>();
+    var matches = postings.subMap(term, true, term + Character.MAX_VALUE, true);
+    for(var match : matches.entrySet()) {
+      var weight = match.getKey().equals(term) ? 1.0 : prefixMatchWeight;
+      var idf = Math.log(1.0 + (double) documents.size() / match.getValue().size());
+      match.getValue().forEach((id, frequency) -> {
+        if(ownerId == null || Objects.equals(ownerId, documents.get(id).ownerId())) {
+          scores.merge(id, weight * (1.0 + Math.log(frequency)) * idf, Double::sum);
+        }
+      });
+    }
+    return scores;
+  }
+
+  private void addDocument(Long id, Long ownerId, String message) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    tokenize(message).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+    documents.put(id, new Document(ownerId, frequencies));
+    frequencies.forEach((term, frequency) ->
+        postings.computeIfAbsent(term, x -> new HashMap<>()).put(id, frequency));
+  }
+
+  private void removeDocument(Long id) {
+    var document = documents.remove(id);
+    if(document == null) {
+      return;
+    }
+
+    for(var term : document.termFrequencies().keySet()) {
+      var posting = postings.get(term);
+      posting.remove(id);
+      if(posting.isEmpty()) {
+        postings.remove(term);
+      }
+    }
+  }
+}
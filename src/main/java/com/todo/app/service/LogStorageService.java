@@ -0,0 +1,338 @@
+package com.todo.app.service;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.event.TodoEvent;
+import com.todo.app.event.UserEvent;
+import com.todo.app.storage.LogRecord;
+import com.todo.app.storage.MutationLog;
+import com.todo.app.storage.TodoWriteBehind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.Table;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the database in step with the {@link MutationLog}. At startup the segments written
+ * after the latest snapshot are folded to the last state of every row they changed, then the
+ * snapshot and those rows are bulk inserted, so replay costs one insert per row however many
+ * times it changed.
+ * <p>
+ * Afterwards every committed change is appended to the log. The row is read again under a
+ * lock of its ID, so of two concurrent changes the one appended last carries the latest
+ * state, and a change is only acknowledged once it is on disk: the changes of a transaction
+ * are appended right after its commit, on the thread of the request, and waited for
+ * together, so they share one {@code fsync} and a failed append fails the request. Changes
+ * queued by the {@link TodoWriteBehind} are appended when queued instead. Snapshots are
+ * written periodically and compact the log.
+ * <p>
+ * Never lazily initialized, the replay must be over before the first request is served.
+ */
+@Service
+@Lazy(false)
+@ConditionalOnProperty(name = "app.storage.engine", havingValue = "log")
+public class LogStorageService {
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int LOCK_STRIPES = 64;
+  // Hibernate hands out up to allocationSize IDs below the value it reads from a sequence
+  private static final long SEQUENCE_GAP = 100;
+
+  private static final String SELECT_USERS = "select id, name from u";
+  private static final String SELECT_TODOS = "select id, message, done, created_at, updated_at, version, owner_id from todo";
+  private static final String INSERT_USER = "insert into u (id, name) values (?, ?)";
+  private static final String INSERT_TODO = "insert into todo (id, message, done, created_at, updated_at, version, owner_id) "
+      + "values (?, ?, ?, ?, ?, ?, ?)";
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final MutationLog mutationLog;
+  private final JdbcTemplate jdbcTemplate;
+  private final TodoWriteBehind writeBehind;
+  private final TransactionTemplate snapshotTransaction;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  private final AtomicLong changesSinceSnapshot = new AtomicLong();
+
+  /**
+   * Takes the transaction manager, which is only created once Hibernate created the schema
+   * the replay writes to.
+   */
+  public LogStorageService(MutationLog mutationLog,
+                           JdbcTemplate jdbcTemplate,
+                           TodoWriteBehind writeBehind,
+                           PlatformTransactionManager transactionManager) {
+    this.mutationLog = mutationLog;
+    this.jdbcTemplate = jdbcTemplate;
+    this.writeBehind = writeBehind;
+    // A consistent view of both tables while the snapshot reads them
+    this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    this.snapshotTransaction.setReadOnly(true);
+    this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    for(int i = 0; i < LOCK_STRIPES; ++i) {
+      locks[i] = new Object();
+    }
+  }
+
+  @PostConstruct
+  public void recover() throws IOException {
+    var start = System.currentTimeMillis();
+    var snapshot = mutationLog.latestSnapshot();
+
+    // The segments are folded first, so a snapshot row changed since is skipped and only its latest state is inserted
+    Map<Long, LogRecord> changedUsers = new HashMap<>();
+    Map<Long, LogRecord> changedTodos = new HashMap<>();
+    var segmentRecords = new AtomicLong();
+    mutationLog.readSegments(snapshot, record -> {
+      (record.isTodo() ? changedTodos : changedUsers).put(record.id(), record);
+      segmentRecords.incrementAndGet();
+    });
+
+    // The rows loaded are consistent, they are inserted without checking foreign keys, and
+    // the secondary indexes are built once at the end instead of updated row by row
+    var users = new Batch(INSERT_USER, LogStorageService::setUser);
+    var todos = new Batch(INSERT_TODO, LogStorageService::setTodo);
+    var indexes = Todo.class.getAnnotation(Table.class).indexes();
+    jdbcTemplate.execute("set referential_integrity false");
+    Arrays.stream(indexes).forEach(x -> jdbcTemplate.execute("drop index if exists " + x.name()));
+    try {
+      mutationLog.readSnapshot(record -> {
+        if(!(record.isTodo() ? changedTodos : changedUsers).containsKey(record.id())) {
+          (record.isTodo() ? todos : users).add(record);
+        }
+      });
+      changedUsers.values().stream().filter(x -> !x.isDelete()).forEach(users::add);
+      changedTodos.values().stream().filter(x -> !x.isDelete()).forEach(todos::add);
+      users.flush();
+      todos.flush();
+    } finally {
+      jdbcTemplate.execute("set referential_integrity true");
+      Arrays.stream(indexes).forEach(x ->
+          jdbcTemplate.execute("create index if not exists " + x.name() + " on todo (" + x.columnList() + ")"));
+    }
+    restartSequence("user_sequence", "u");
+    restartSequence("todo_sequence", "todo");
+
+    mutationLog.open();
+    changesSinceSnapshot.set(segmentRecords.get());
+    logger.info("Replayed {} users and {} TODOs from snapshot {} and {} logged changes in {} ms", users.count,
+        todos.count, snapshot, segmentRecords.get(), System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Not a {@code @TransactionalEventListener}: those run after the commit from
+   * {@code afterCompletion}, which swallows their exceptions.
+   */
+  @EventListener
+  public void onTodoEvent(TodoEvent event) {
+    if(event.isLogged()) {
+      changesSinceSnapshot.incrementAndGet();
+      return;
+    }
+    var id = event.getTodoId();
+    appendAfterCommit(true, id, () -> event.getType() == TodoEvent.Type.DELETED ? LogRecord.todoDeleted(id) : findTodo(id));
+  }
+
+  @EventListener
+  public void onUserEvent(UserEvent event) {
+    var id = event.getUserId();
+    appendAfterCommit(false, id, () -> event.getType() == UserEvent.Type.DELETED ? LogRecord.userDeleted(id) : findUser(id));
+  }
+
+  /**
+   * Writes a snapshot of both tables and removes the segments it replaces. Skipped while
+   * nothing changed since the last one.
+   */
+  @Scheduled(initialDelayString = "${app.storage.log.snapshot-interval:PT5M}",
+      fixedDelayString = "${app.storage.log.snapshot-interval:PT5M}")
+  public void snapshot() throws IOException {
+    var changes = changesSinceSnapshot.getAndSet(0);
+    if(changes == 0) {
+      return;
+    }
+
+    var start = System.currentTimeMillis();
+    // Every record appended before the roll is already committed, so the snapshot read after it
+    // contains it; the barrier writes the records queued by the write-behind first
+    long number;
+    try(var barrier = writeBehind.barrier()) {
+      number = mutationLog.roll();
+    }
+    var rows = new AtomicLong();
+    try {
+      mutationLog.writeSnapshot(number, out -> snapshotTransaction.executeWithoutResult(status -> {
+        jdbcTemplate.query(SELECT_USERS, (RowCallbackHandler) rs -> {
+          out.accept(LogRecord.userPut(rs.getLong(1), rs.getString(2)));
+          rows.incrementAndGet();
+        });
+        jdbcTemplate.query(SELECT_TODOS, (RowCallbackHandler) rs -> {
+          out.accept(toTodoRecord(rs));
+          rows.incrementAndGet();
+        });
+      }));
+    } catch (IOException | RuntimeException ex) {
+      changesSinceSnapshot.addAndGet(changes);
+      throw ex;
+    }
+    logger.info("Snapshot {} written with {} rows in {} ms", number, rows.get(), System.currentTimeMillis() - start);
+  }
+
+  private interface RecordReader {
+    LogRecord read();
+  }
+
+  private record RowKey(boolean todo, Long id) {}
+
+  /**
+   * Appends the change once the current transaction committed, or right away outside of one.
+   */
+  private void appendAfterCommit(boolean todo, Long id, RecordReader reader) {
+    if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+      await(List.of(append(id, reader)));
+      return;
+    }
+
+    var changes = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+    if(changes == null) {
+      changes = new TransactionChanges();
+      TransactionSynchronizationManager.bindResource(this, changes);
+      TransactionSynchronizationManager.registerSynchronization(changes);
+    }
+    changes.readers.put(new RowKey(todo, id), reader);
+  }
+
+  /**
+   * @return completes once the record is written, null when the row was deleted since
+   */
+  private CompletableFuture<Long> append(Long id, RecordReader reader) {
+    CompletableFuture<Long> written;
+    synchronized(locks[Math.floorMod(id, LOCK_STRIPES)]) {
+      var record = reader.read();
+      if(record == null) {
+        // Deleted since, its own event appends the delete
+        return null;
+      }
+      written = mutationLog.append(record);
+    }
+    changesSinceSnapshot.incrementAndGet();
+    return written;
+  }
+
+  private static void await(List<CompletableFuture<Long>> written) {
+    CompletableFuture.allOf(written.stream().filter(Objects::nonNull).toArray(CompletableFuture[]::new)).join();
+  }
+
+  /**
+   * Changes of one transaction, appended after it committed. An exception thrown from
+   * {@code afterCommit} reaches the caller of the transaction.
+   */
+  private class TransactionChanges implements TransactionSynchronization {
+    // Per row, the record is read after the commit whatever the number of changes
+    private final Map<RowKey, RecordReader> readers = new LinkedHashMap<>();
+
+    @Override
+    public void afterCommit() {
+      List<CompletableFuture<Long>> written = new ArrayList<>(readers.size());
+      readers.forEach((key, reader) -> written.add(append(key.id(), reader)));
+      await(written);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResource(LogStorageService.this);
+    }
+  }
+
+  private LogRecord findTodo(Long id) {
+    return jdbcTemplate.query(SELECT_TODOS + " where id = ?", rs -> rs.next() ? toTodoRecord(rs) : null, id);
+  }
+
+  private LogRecord findUser(Long id) {
+    return jdbcTemplate.query(SELECT_USERS + " where id = ?",
+        rs -> rs.next() ? LogRecord.userPut(rs.getLong(1), rs.getString(2)) : null, id);
+  }
+
+  private void restartSequence(String sequence, String table) {
+    var maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+    if(maxId != null) {
+      jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + SEQUENCE_GAP));
+    }
+  }
+
+  private static LogRecord toTodoRecord(ResultSet rs) throws SQLException {
+    var ownerId = rs.getObject(7, Long.class);
+    return LogRecord.todoPut(rs.getLong(1), rs.getString(2), rs.getBoolean(3), rs.getTimestamp(4),
+        rs.getTimestamp(5), rs.getLong(6), ownerId);
+  }
+
+  private static void setUser(PreparedStatement ps, LogRecord record) throws SQLException {
+    ps.setLong(1, record.id());
+    ps.setString(2, record.text());
+  }
+
+  private static void setTodo(PreparedStatement ps, LogRecord record) throws SQLException {
+    ps.setLong(1, record.id());
+    ps.setString(2, record.text());
+    ps.setBoolean(3, record.done());
+    ps.setTimestamp(4, record.createdAt());
+    ps.setTimestamp(5, record.updatedAt());
+    ps.setLong(6, record.version());
+    ps.setObject(7, record.ownerId(), Types.BIGINT);
+  }
+
+  /**
+   * Statement executed in JDBC batches of {@link #BATCH_SIZE} records.
+   */
+  private class Batch {
+    private final String sql;
+    private final ParameterizedPreparedStatementSetter<LogRecord> setter;
+    private final List<LogRecord> records = new ArrayList<>(BATCH_SIZE);
+    private long count;
+
+    private Batch(String sql, ParameterizedPreparedStatementSetter<LogRecord> setter) {
+      this.sql = sql;
+      this.setter = setter;
+    }
+
+    private void add(LogRecord record) {
+      records.add(record);
+      if(records.size() == BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    private void flush() {
+      if(!records.isEmpty()) {
+        jdbcTemplate.batchUpdate(sql, records, BATCH_SIZE, setter);
+        count += records.size();
+        records.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.todo.app.service;
+
+import com.todo.app.entity.TodoChange;
+import com.todo.app.event.TodoEvent;
+import com.todo.app.feed.TodoChangeFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the committed changes of a user's TODOs as server-sent events through the
+ * {@link TodoChangeFeed}. Each event is named after the change, {@code created},
+ * {@code updated} or {@code deleted}, and holds a {@link TodoChange}. A {@code resync} event
+ * tells the client to read its list again: it is sent when the client fell behind, and when
+ * it reconnects with a {@code Last-Event-ID}, because changes are not kept for replay.
+ */
+@Service
+public class TodoFeedService {
+
+  private static final String RESYNC = "resync";
+
+  private final TodoChangeFeed feed;
+  private final Duration timeout;
+  private final AtomicLong sequence = new AtomicLong();
+
+  public TodoFeedService(TodoChangeFeed feed, @Value("${app.events.timeout:PT30M}") Duration timeout) {
+    this.feed = feed;
+    this.timeout = timeout;
+  }
+
+  public SseEmitter subscribe(long userId, boolean reconnected) {
+    var emitter = new SseEmitter(timeout.toMillis());
+    var subscriber = feed.subscribe(userId, new EmitterSink(emitter), reconnected);
+    emitter.onCompletion(() -> feed.unsubscribe(subscriber));
+    emitter.onTimeout(() -> feed.unsubscribe(subscriber));
+    emitter.onError(ex -> feed.unsubscribe(subscriber));
+    return emitter;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTodoEvent(TodoEvent event) {
+    var change = new TodoChange(event.getType(), event.getTodoId());
+    if(event.getOwnerId() != null) {
+      feed.publish(event.getOwnerId(), change);
+    }
+    if(event.getPreviousOwnerId() != null) {
+      feed.publish(event.getPreviousOwnerId(), change);
+    }
+  }
+
+  @Scheduled(initialDelayString = "${app.events.heartbeat-interval:PT30S}",
+      fixedDelayString = "${app.events.heartbeat-interval:PT30S}")
+  public void heartbeat() {
+    feed.heartbeat();
+  }
+
+  /**
+   * Runs every send timeout, so a stalled send is found at most two timeouts after it started.
+   */
+  @Scheduled(initialDelayString = "${app.events.send-timeout:PT5S}",
+      fixedDelayString = "${app.events.send-timeout:PT5S}")
+  public void dropStalled() {
+    feed.dropStalled();
+  }
+
+  private class EmitterSink implements TodoChangeFeed.Sink {
+    private final SseEmitter emitter;
+
+    private EmitterSink(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void change(TodoChange change) throws IOException {
+      emitter.send(SseEmitter.event()
+          .id(String.valueOf(sequence.incrementAndGet()))
+          .name(change.getType().name().toLowerCase(Locale.ROOT))
+          .data(change, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void resync() throws IOException {
+      emitter.send(SseEmitter.event().id(String.valueOf(sequence.incrementAndGet())).name(RESYNC).data(""));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+      emitter.send(SseEmitter.event().comment(""));
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.todo.app.service;
+
+import com.todo.app.event.TodoEvent;
+import com.todo.app.index.TodoOwnerIndex;
+import com.todo.app.repository.TodoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the {@link TodoOwnerIndex} in step with the TODO table: built once the application
+ * is ready, then updated on every committed create, delete and owner change.
+ */
+@Service
+public class TodoOwnerIndexService {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final TodoRepository todoRepository;
+  private final TodoOwnerIndex ownerIndex;
+  private final TransactionTemplate readOnlyTransaction;
+
+  public TodoOwnerIndexService(TodoRepository todoRepository,
+                               TodoOwnerIndex ownerIndex,
+                               PlatformTransactionManager transactionManager) {
+    this.todoRepository = todoRepository;
+    this.ownerIndex = ownerIndex;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTodoEvent(TodoEvent event) {
+    if(event.getType() == TodoEvent.Type.DELETED) {
+      ownerIndex.remove(event.getTodoId());
+      return;
+    }
+
+    // Partial updates never change the owner
+    var todo = event.getTodo();
+    if(todo != null) {
+      ownerIndex.put(todo.getId(), todo.getOwner() == null ? null : todo.getOwner().getId());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    var start = System.currentTimeMillis();
+    ownerIndex.beginBuild();
+
+    var snapshot = new TodoOwnerIndex((int) Math.min(Integer.MAX_VALUE, todoRepository.count()));
+    readOnlyTransaction.executeWithoutResult(status -> {
+      try(var rows = todoRepository.streamAllStates()) {
+        rows.forEach(x -> snapshot.put(x.getId(), x.getOwnerId()));
+      }
+    });
+
+    ownerIndex.finishBuild(snapshot);
+    logger.info("Owner index built with {} TODOs in {} ms", ownerIndex.size(), System.currentTimeMillis() - start);
+  }
+}
@@ -0,0 +1,150 @@
+package com.todo.app.service;
+
+import com.todo.app.datasource.ReadYourWrites;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.event.TodoEvent;
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.search.TodoSearchIndex;
+import com.todo.app.utils.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+@Service
+public class TodoSearchService {
+  public static final int MAX_RESULTS = 100;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final TodoRepository todoRepository;
+  private final TodoSearchIndex searchIndex;
+  private final ReadYourWrites readYourWrites;
+  private final TransactionTemplate readOnlyTransaction;
+  private final long rowsPerBuildThread;
+
+  public TodoSearchService(TodoRepository todoRepository,
+                           TodoSearchIndex searchIndex,
+                           ReadYourWrites readYourWrites,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.search.rows-per-build-thread:50000}") long rowsPerBuildThread) {
+    this.todoRepository = todoRepository;
+    this.searchIndex = searchIndex;
+    this.readYourWrites = readYourWrites;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.rowsPerBuildThread = rowsPerBuildThread;
+  }
+
+  /**
+   * TODOs whose message contains every term of {@code query}, or a term starting with it,
+   * best matches first. The matches are read from the replica unless the owner, or anyone
+   * when searching every owner, just wrote.
+   */
+  public List<TodoSummary> search(String query, Long ownerId, int limit) throws BadRequestException {
+    if(StringUtils.isEmpty(query) || TodoSearchIndex.tokenize(query).isEmpty()) {
+      throw new BadRequestException("Search query cannot be empty");
+    }
+
+    if(limit < 1 || limit > MAX_RESULTS) {
+      throw new BadRequestException("Search limit must be between 1 and " + MAX_RESULTS);
+    }
+
+    var ids = searchIndex.search(query, ownerId, limit);
+    if(ids.isEmpty()) {
+      return List.of();
+    }
+
+    var rank = new HashMap<Long, Integer>();
+    for(int i = 0; i < ids.size(); ++i) {
+      rank.put(ids.get(i), i);
+    }
+
+    Supplier<List<TodoSummary>> read = () -> todoRepository.findAllSummariesById(ids);
+    var found = ownerId == null ? readYourWrites.readAll(read) : readYourWrites.readUser(ownerId, read);
+    List<TodoSummary> todos = new ArrayList<>(found);
+    todos.sort(Comparator.comparing(x -> rank.get(x.getId())));
+    return todos;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTodoEvent(TodoEvent event) {
+    if(event.getType() == TodoEvent.Type.DELETED) {
+      searchIndex.remove(event.getTodoId());
+      return;
+    }
+
+    var todo = event.getTodo();
+    if(todo == null) {
+      if(event.getMessage() != null) {
+        searchIndex.updateMessage(event.getTodoId(), event.getMessage());
+      }
+      return;
+    }
+
+    var ownerId = todo.getOwner() == null ? null : todo.getOwner().getId();
+    searchIndex.index(todo.getId(), ownerId, todo.getMessage());
+  }
+
+  /**
+   * Rebuilds the index from the database. Large tables are split into ID ranges that are
+   * read and indexed in parallel, then merged.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() throws InterruptedException, ExecutionException {
+    var start = System.currentTimeMillis();
+    searchIndex.beginBuild();
+
+    var minId = todoRepository.findMinId();
+    var maxId = todoRepository.findMaxId();
+    List<TodoSearchIndex> partials = new ArrayList<>();
+    if(minId != null) {
+      var rows = todoRepository.count();
+      var threads = (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), rows / rowsPerBuildThread));
+      var rangeSize = (maxId - minId) / threads + 1;
+
+      var executor = Executors.newFixedThreadPool(threads);
+      try {
+        List<Future<TodoSearchIndex>> futures = new ArrayList<>();
+        for(long from = minId; from <= maxId; from += rangeSize) {
+          var fromId = from;
+          var toId = Math.min(maxId, from + rangeSize - 1);
+          futures.add(executor.submit(() -> buildRange(fromId, toId)));
+        }
+        for(var future : futures) {
+          partials.add(future.get());
+        }
+      } finally {
+        executor.shutdown();
+      }
+    }
+
+    searchIndex.finishBuild(partials);
+    logger.info("Search index built with {} TODOs in {} ms", searchIndex.size(), System.currentTimeMillis() - start);
+  }
+
+  private TodoSearchIndex buildRange(Long fromId, Long toId) {
+    var partial = new TodoSearchIndex();
+    readOnlyTransaction.executeWithoutResult(status -> {
+      try(var rows = todoRepository.streamTextByIdBetween(fromId, toId)) {
+        rows.forEach(x -> partial.index(x.getId(), x.getOwnerId(), x.getMessage()));
+      }
+    });
+    return partial;
+  }
+}
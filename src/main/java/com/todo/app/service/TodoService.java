@@ -1,28 +1,79 @@
 package com.todo.app.service;
 
+import com.todo.app.cache.EntityCache;
+import com.todo.app.cache.TodoListCache;
+import com.todo.app.datasource.ReadYourWrites;
 import com.todo.app.entity.Todo;
-import com.todo.app.entity.User;
+import com.todo.app.entity.TodoBatchItemResult;
+import com.todo.app.entity.TodoBatchResult;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoPage;
+import com.todo.app.entity.TodoState;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.entity.TodoTombstone;
+import com.todo.app.event.TodoEvent;
 import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.exceptions.PreconditionFailedException;
 import com.todo.app.exceptions.ResourceAlreadyExistsException;
 import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.index.TodoOwnerIndex;
 import com.todo.app.repository.TodoRepository;
+import com.todo.app.repository.TodoTombstoneRepository;
+import com.todo.app.repository.UserRepository;
 import com.todo.app.specification.TodoSpecification;
+import com.todo.app.storage.TodoWriteBehind;
+import com.todo.app.utils.Cursor;
+import com.todo.app.utils.CursorUtils;
+import com.todo.app.utils.ETagUtils;
 import com.todo.app.utils.StringUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
+@Timed("todo.service")
 public class TodoService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+  public static final int MAX_BATCH_SIZE = 1000;
+  public static final int DELETE_CHUNK_SIZE = 500;
+  public static final int MAX_FIND_BY_ID = 500;
+
   private final TodoRepository todoRepository;
+  private final UserRepository userRepository;
+  private final TodoTombstoneRepository tombstoneRepository;
+  private final EntityCache<Todo> todoCache;
+  private final TodoListCache todoListCache;
+  private final TodoOwnerIndex ownerIndex;
+  private final ReadYourWrites readYourWrites;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TodoWriteBehind writeBehind;
+  private final TransactionOperations transaction;
 
   public Todo findById(Long id) throws ResourceNotFoundException {
-    var todo = todoRepository.findById(id);
+    var queued = writeBehind.find(id);
+    if(queued != null) {
+      return queued;
+    }
+
+    var todo = todoCache.get(id, x -> readYourWrites.readTodo(x, () -> todoRepository.findById(x)));
 
     if(todo.isEmpty()) {
       throw new ResourceNotFoundException("Cannot find TODO with ID: " + id);
@@ -32,74 +83,584 @@ public class TodoService {
 
   }
 
+  /**
+   * Current version of a TODO, from the cache when it holds the TODO, otherwise read alone
+   * without loading the TODO.
+   */
+  public long findVersion(Long id) throws ResourceNotFoundException {
+    var queued = writeBehind.find(id);
+    if(queued != null) {
+      return queued.getVersion();
+    }
+
+    var cached = todoCache.getIfPresent(id);
+    var version = cached != null ? cached.map(Todo::getVersion) : todoRepository.findVersionById(id);
+
+    if(version.isEmpty()) {
+      throw new ResourceNotFoundException("Cannot find TODO with ID: " + id);
+    }
+
+    return version.get();
+  }
+
+  /**
+   * ETag of the TODO list of {@code userId}, computed from the cached list when there is
+   * one or the user has queued TODOs, otherwise with an index-only aggregate query on the
+   * replica.
+   */
+  public String findListETag(Long userId) {
+    var cached = todoListCache.getIfPresent(userId);
+    if(cached != null || !queued(userId).isEmpty()) {
+      var todos = findAllByUserId(userId);
+      var lastUpdatedAt = todos.stream()
+          .map(TodoSummary::getUpdatedAt)
+          .filter(Objects::nonNull)
+          .max(Comparator.naturalOrder())
+          .orElse(null);
+      return ETagUtils.of(todos.size(), lastUpdatedAt);
+    }
+
+    var version = readYourWrites.readUser(userId, () -> todoRepository.findListVersionByOwnerId(userId));
+    return ETagUtils.of(version.getCount(), version.getLastUpdatedAt());
+  }
+
   public List<Todo> findAll() {
     List<Todo> todo = new ArrayList<>();
-    todoRepository.findAll().forEach(todo::add);
+    readYourWrites.readAll(todoRepository::findAll).forEach(todo::add);
     return todo;
   }
 
-  public List<Todo> findAllByUserId(Long userId) {
-    User owner = new User();
-    owner.setId(userId);
+  /**
+   * Every TODO of {@code userId} ordered by ID. Once the owner index is built, owners with up
+   * to {@value #MAX_FIND_BY_ID} TODOs are read by primary key with the IDs it holds, in one
+   * query. Larger owners are read with one range scan of the owner index of the table, which
+   * beats a primary key lookup per row once the IN list gets long.
+   */
+  public List<TodoSummary> findAllByUserId(Long userId) {
+    var cached = todoListCache.getIfPresent(userId);
+    if(cached != null) {
+      return withQueued(userId, cached);
+    }
+
+    var version = todoListCache.version(userId);
+    var ids = userId == null ? null : ownerIndex.find(userId);
+    var todos = readYourWrites.readUser(userId, () -> {
+      if(ids == null || ids.length > MAX_FIND_BY_ID) {
+        var filter = TodoFilter.byOwner(userId);
+        return todoRepository.findSummaries(new TodoSpecification(filter), TodoSpecification.sort(filter), Integer.MAX_VALUE);
+      }
+      return findSummariesById(ids);
+    });
+    todoListCache.putIfUnchanged(userId, todos, version);
+    return withQueued(userId, todos);
+  }
+
+  /**
+   * Keyset pagination in the sort order of {@code filter}. The cursor encodes the sort key
+   * of the last row of the previous page, so every page is an index seek regardless of how
+   * deep the client has paged. Plain listings of an owner are sliced from the cached list
+   * of that owner when there is one, and a first page holding the whole list fills it. Pages
+   * are read from the replica unless the owner, or anyone for unfiltered pages, just wrote.
+   */
+  public TodoPage findPage(TodoFilter filter, String cursor, int limit) throws BadRequestException {
+    validate(filter, limit);
+    var position = CursorUtils.decode(cursor);
+    if(position != null && !TodoFilter.SORT_ID.equals(filter.getSort()) && position.getSortValue() == null) {
+      throw new BadRequestException("Cursor does not belong to a " + filter.getSort() + " sort");
+    }
+
+    if(filter.isOwnerListing()) {
+      var cached = todoListCache.getIfPresent(filter.getOwner());
+      if(cached != null || !queued(filter.getOwner()).isEmpty()) {
+        var todos = findAllByUserId(filter.getOwner());
+        return toPage(todos, indexAfter(todos, position), limit, filter);
+      }
+    }
 
-    Todo filter = new Todo();
-    filter.setOwner(owner);
+    Specification<Todo> spec = new TodoSpecification(filter)
+        .and(TodoSpecification.after(filter, position));
 
-    Specification<Todo> spec = new TodoSpecification(filter);
-    return todoRepository.findAll(spec);
+    // Fetch one extra row to learn whether there is a next page without a count query
+    var version = todoListCache.version(filter.getOwner());
+    var todos = readOwner(filter.getOwner(),
+        () -> todoRepository.findSummaries(spec, TodoSpecification.sort(filter), limit + 1));
+    if(filter.isOwnerListing() && position == null && todos.size() <= limit) {
+      // The first page is the whole list, cache it without reading any further
+      todoListCache.putIfUnchanged(filter.getOwner(), todos, version);
+    }
+    return toPage(todos, 0, limit, filter);
   }
 
-  public Todo create(Todo todo) throws BadRequestException, ResourceAlreadyExistsException{
-    if(StringUtils.isEmpty(todo.getMessage())) {
-      throw new BadRequestException("TODO message cannot be empty");
+  /**
+   * Hands the summary of every TODO (or every TODO of {@code userId}) to {@code consumer}
+   * straight from a database cursor. Summaries are not managed entities, so memory stays
+   * flat however many rows are exported.
+   */
+  @Transactional(readOnly = true)
+  public void export(Long userId, Consumer<TodoSummary> consumer) {
+    try(var todos = userId == null ? todoRepository.streamAllSummaries() : todoRepository.streamAllSummariesByOwnerId(userId)) {
+      todos.forEach(consumer);
     }
+  }
+
+  public Todo create(Todo todo) throws BadRequestException, ResourceAlreadyExistsException{
+    validateMessage(todo.getMessage());
 
     if(todo.getId() != null && todoRepository.existsById(todo.getId())) {
       throw new ResourceAlreadyExistsException("TODO with ID: " + todo.getId() + " already exists");
     }
 
-    return todoRepository.save(todo);
+    if(writeBehind.isEnabled()) {
+      // The insert comes after the acknowledgement, it must not fail on the owner or the message
+      var ownerId = ownerId(todo);
+      if(ownerId != null && !userRepository.existsById(ownerId)) {
+        throw new BadRequestException("Cannot find USER with ID: " + ownerId);
+      }
+
+      var createdAt = now();
+      todo.setId(todoRepository.nextId());
+      todo.setVersion(0L);
+      todo.setCreatedAt(createdAt);
+      todo.setUpdatedAt(createdAt);
+      writeBehind.create(todo);
+      readYourWrites.todoWritten(todo.getId(), ownerId(todo));
+      return todo;
+    }
+
+    // IDs and versions are always generated, so a new TODO is persisted rather than merged
+    todo.setId(null);
+    todo.setVersion(null);
+    var createdTodo = todoRepository.save(todo);
+    todoCache.put(createdTodo.getId(), createdTodo);
+    readYourWrites.todoWritten(createdTodo.getId(), ownerId(createdTodo));
+    eventPublisher.publishEvent(TodoEvent.created(createdTodo));
+    // After the owner index took the TODO, a list read before it would miss the TODO
+    todoListCache.invalidateOwner(ownerId(createdTodo));
+    return createdTodo;
   }
 
+  /**
+   * Creates every valid TODO in one transaction. IDs come from a pooled sequence, so
+   * Hibernate can send the inserts as JDBC batches on commit. Invalid items are reported
+   * in the result instead of failing the whole batch. The created TODOs are only cached, and
+   * the lists of their owners dropped, once committed.
+   */
+  public TodoBatchResult createAll(List<Todo> todos) throws BadRequestException {
+    if(todos == null || todos.isEmpty()) {
+      throw new BadRequestException("TODO batch cannot be empty");
+    }
 
-  public void updateTodo(Todo todo) throws ResourceNotFoundException, BadRequestException {
-    var currentTodo = todoRepository.findById(todo.getId());
-    if(currentTodo.isEmpty()) {
-      throw new ResourceNotFoundException("Cannot find TODO with ID: " + todo.getId());
+    if(todos.size() > MAX_BATCH_SIZE) {
+      throw new BadRequestException("TODO batch cannot have more than " + MAX_BATCH_SIZE + " items");
     }
 
-    if(StringUtils.isEmpty(todo.getMessage())) {
-      throw new BadRequestException("TODO message cannot be empty");
+    // One query for every client supplied ID instead of one existsById per item
+    var requestedIds = todos.stream().map(Todo::getId).filter(Objects::nonNull).toList();
+    var existingIds = new HashSet<Long>();
+    todoRepository.findAllById(requestedIds).forEach(x -> existingIds.add(x.getId()));
+    // Likewise for the owners, an unknown one would fail the whole batch on its foreign key
+    var ownerIds = todos.stream().map(TodoService::ownerId).filter(Objects::nonNull).distinct().toList();
+    var existingOwnerIds = new HashSet<Long>();
+    if(!ownerIds.isEmpty()) {
+      userRepository.findAllById(ownerIds).forEach(x -> existingOwnerIds.add(x.getId()));
+    }
+
+    var results = new ArrayList<TodoBatchItemResult>(todos.size());
+    var accepted = new ArrayList<Todo>(todos.size());
+    for(int i = 0; i < todos.size(); ++i) {
+      var todo = todos.get(i);
+      if(StringUtils.isEmpty(todo.getMessage())) {
+        results.add(new TodoBatchItemResult(i, 400, null, "TODO message cannot be empty"));
+      } else if(todo.getMessage().length() > Todo.MAX_MESSAGE_LENGTH) {
+        // Checked here, the column would fail the whole batch on commit
+        results.add(new TodoBatchItemResult(i, 400, null,
+            "TODO message cannot be longer than " + Todo.MAX_MESSAGE_LENGTH + " characters"));
+      } else if(todo.getId() != null && existingIds.contains(todo.getId())) {
+        results.add(new TodoBatchItemResult(i, 409, null, "TODO with ID: " + todo.getId() + " already exists"));
+      } else if(ownerId(todo) != null && !existingOwnerIds.contains(ownerId(todo))) {
+        results.add(new TodoBatchItemResult(i, 400, null, "Cannot find USER with ID: " + ownerId(todo)));
+      } else {
+        // IDs are always generated, clearing it turns a select + merge into a plain persist
+        todo.setId(null);
+        todo.setVersion(null);
+        accepted.add(todo);
+        results.add(new TodoBatchItemResult(i, 201, null, null));
+      }
+    }
+
+    transaction.executeWithoutResult(status -> {
+      todoRepository.saveAll(accepted);
+      accepted.forEach(x -> readYourWrites.todoWritten(x.getId(), ownerId(x)));
+      accepted.forEach(x -> eventPublisher.publishEvent(TodoEvent.created(x)));
+    });
+    accepted.forEach(x -> todoCache.put(x.getId(), x));
+    // Only once committed: a list read before would be cached under the new version
+    accepted.stream().map(TodoService::ownerId).distinct().forEach(todoListCache::invalidateOwner);
+
+    var createdIds = new ArrayList<Long>(accepted.size());
+    var next = accepted.iterator();
+    for(var result : results) {
+      if(result.getStatus() == 201) {
+        result.setId(next.next().getId());
+        createdIds.add(result.getId());
+      }
     }
 
-    todo.setCreatedAt(currentTodo.get().getCreatedAt());
-    todoRepository.save(todo);
+    return new TodoBatchResult(createdIds, results);
+  }
+
+  public Todo updateTodo(Todo todo) throws ResourceNotFoundException, BadRequestException, PreconditionFailedException {
+    return updateTodo(todo, todo.getVersion());
+  }
+
+  /**
+   * Replaces the message, status and owner of a TODO. When {@code expectedVersion} is not
+   * null the TODO must still have this version; a concurrent update between the read and
+   * the write is rejected by the optimistic lock either way. Runs once the change queued for
+   * the TODO by the write-behind is written, like every write it does not queue.
+   */
+  public Todo updateTodo(Todo todo, Long expectedVersion)
+      throws ResourceNotFoundException, BadRequestException, PreconditionFailedException {
+    try(var barrier = writeBehind.barrier(todo.getId())) {
+      var currentTodo = todoRepository.findById(todo.getId());
+      if(currentTodo.isEmpty()) {
+        throw new ResourceNotFoundException("Cannot find TODO with ID: " + todo.getId());
+      }
+
+      validateMessage(todo.getMessage());
 
+      var updatedTodo = currentTodo.get();
+      if(expectedVersion != null && !expectedVersion.equals(updatedTodo.getVersion())) {
+        throw new PreconditionFailedException("TODO with ID: " + todo.getId() + " has changed");
+      }
+
+      var previous = TodoState.of(updatedTodo);
+      var previousOwnerId = previous.getOwnerId();
+      updatedTodo.setMessage(todo.getMessage());
+      updatedTodo.setDone(todo.isDone());
+      updatedTodo.setOwner(todo.getOwner());
+      try {
+        updatedTodo = todoRepository.save(updatedTodo);
+      } catch (ObjectOptimisticLockingFailureException ex) {
+        throw new PreconditionFailedException("TODO with ID: " + todo.getId() + " has changed");
+      } finally {
+        todoCache.invalidate(todo.getId());
+      }
+      if(previousOwnerId != null && !previousOwnerId.equals(ownerId(updatedTodo))) {
+        // Gone from the list of the previous owner as far as its delta sync is concerned
+        tombstoneRepository.save(new TodoTombstone(updatedTodo.getId(), previousOwnerId, now()));
+      }
+      readYourWrites.todoWritten(updatedTodo.getId(), previousOwnerId);
+      readYourWrites.userWritten(ownerId(updatedTodo));
+      eventPublisher.publishEvent(TodoEvent.updated(updatedTodo, previous));
+      // After the owner index moved the TODO, a list read before it would still use the old owner
+      todoListCache.invalidateOwner(previousOwnerId);
+      todoListCache.invalidateOwner(ownerId(updatedTodo));
+      return updatedTodo;
+    }
   }
-  public void updateStatus(Long id, boolean status) throws ResourceNotFoundException{
-    Todo todo = findById(id);
-    todo.setDone(status);
-    todoRepository.save(todo);
+
+  /**
+   * Sets the status whatever the version of the TODO, the same as
+   * {@link #updateStatus(Long, boolean, Long)} without an expected version.
+   */
+  public void updateStatus(Long id, boolean status) throws ResourceNotFoundException {
+    try {
+      updateStatus(id, status, null);
+    } catch (PreconditionFailedException ex) {
+      throw unexpectedPrecondition(id, ex);
+    }
+  }
+
+  /**
+   * Sets the status with a single UPDATE statement, the affected row count tells whether
+   * the TODO exists. When {@code expectedVersion} is not null the TODO must still have this
+   * version. The reverse index of the list cache finds the owner list to drop. Setting the
+   * status the TODO already has changes nothing, not even its version.
+   */
+  public void updateStatus(Long id, boolean status, Long expectedVersion)
+      throws ResourceNotFoundException, PreconditionFailedException {
+    if(writeBehind.isEnabled()) {
+      queueUpdate(id, expectedVersion, x -> x.setDone(status));
+      return;
+    }
+    if(checkUpdated(todoRepository.updateDone(id, status, expectedVersion, now()), id, expectedVersion)) {
+      statusUpdated(id, status);
+    }
   }
 
+  /**
+   * Sets the message whatever the version of the TODO, the same as
+   * {@link #updateMessage(Long, String, Long)} without an expected version.
+   */
   public void updateMessage(Long id, String message) throws ResourceNotFoundException, BadRequestException {
-    var todo = findById(id);
-    if(StringUtils.isEmpty(message)) {
-      throw new BadRequestException("TODO message cannot be empty");
+    try {
+      updateMessage(id, message, null);
+    } catch (PreconditionFailedException ex) {
+      throw unexpectedPrecondition(id, ex);
     }
-    todo.setMessage(message);
-    todoRepository.save(todo);
   }
 
+  /**
+   * Sets the message with a single UPDATE statement, only while the TODO still has
+   * {@code expectedVersion} when it is not null.
+   */
+  public void updateMessage(Long id, String message, Long expectedVersion)
+      throws ResourceNotFoundException, BadRequestException, PreconditionFailedException {
+    validateMessage(message);
+    if(writeBehind.isEnabled()) {
+      queueUpdate(id, expectedVersion, x -> x.setMessage(message));
+      return;
+    }
+    if(!checkUpdated(todoRepository.updateMessage(id, message, expectedVersion, now()), id, expectedVersion)) {
+      throw new ResourceNotFoundException("Cannot find TODO with ID: " + id);
+    }
+    messageUpdated(id, message);
+  }
+
+  /**
+   * Deletes a TODO with a single DELETE, which also returns the owner and status the
+   * listeners of the event need, and records its tombstone in the same transaction. The
+   * change queued for the TODO by the write-behind is written before the transaction starts,
+   * and no other is queued until it commits.
+   */
   public void deleteById(Long id) throws ResourceNotFoundException {
-    if(!todoRepository.existsById(id)) {
+    TodoState previous;
+    try(var barrier = writeBehind.barrier(id)) {
+      previous = transaction.execute(status -> {
+        var state = todoRepository.deleteReturningState(id, now()).orElse(null);
+        if(state != null) {
+          eventPublisher.publishEvent(TodoEvent.deleted(state));
+        }
+        return state;
+      });
+    }
+    if(previous == null) {
       throw new ResourceNotFoundException("Cannot find TODO with ID: " + id);
     }
 
-    todoRepository.deleteById(id);
+    var ownerId = previous.getOwnerId();
+    todoCache.invalidate(id);
+    todoListCache.invalidateTodo(id, ownerId);
+    readYourWrites.todoWritten(id, ownerId);
   }
 
   public void delete(Todo todo) throws ResourceNotFoundException {
     deleteById(todo.getId());
   }
+
+  /**
+   * Deletes every TODO of {@code userId}, or only the done or not done ones. Rows are
+   * deleted {@value #DELETE_CHUNK_SIZE} IDs at a time, each chunk in its own short
+   * transaction along with its tombstones, and no entity is ever loaded. The events of a
+   * chunk are published in its transaction, so listeners handle the chunk at once.
+   *
+   * @return number of deleted TODOs
+   */
+  public long deleteAllByUserId(Long userId, Boolean done) {
+    var filter = TodoFilter.byOwner(userId);
+    filter.setDone(done);
+    var spec = new TodoSpecification(filter);
+
+    long deleted = 0;
+    var afterId = Long.MIN_VALUE;
+    List<TodoState> states;
+    try(var barrier = writeBehind.barrier()) {
+      do {
+        var from = afterId;
+        states = transaction.execute(status -> {
+          var chunk = todoRepository.deleteChunk(spec, from, DELETE_CHUNK_SIZE, now());
+          chunk.forEach(x -> eventPublisher.publishEvent(TodoEvent.deleted(x)));
+          return chunk;
+        });
+        states.forEach(x -> todoCache.invalidate(x.getId()));
+        states.forEach(x -> readYourWrites.todoWritten(x.getId(), userId));
+        deleted += states.size();
+        if(!states.isEmpty()) {
+          afterId = states.get(states.size() - 1).getId();
+        }
+      } while(states.size() == DELETE_CHUNK_SIZE);
+    }
+
+    todoListCache.invalidateOwner(userId);
+    return deleted;
+  }
+
+  private static void validate(TodoFilter filter, int limit) throws BadRequestException {
+    List<String> errors = new ArrayList<>();
+    if(limit < 1 || limit > MAX_PAGE_SIZE) {
+      errors.add("Page limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if(!List.of(TodoFilter.SORT_ID, TodoFilter.SORT_CREATED_AT, TodoFilter.SORT_UPDATED_AT).contains(filter.getSort())) {
+      errors.add("Cannot sort by: " + filter.getSort());
+    }
+    if(!List.of(TodoFilter.ASCENDING, TodoFilter.DESCENDING).contains(filter.getDirection())) {
+      errors.add("Sort direction must be asc or desc");
+    }
+
+    if(!errors.isEmpty()) {
+      var exception = new BadRequestException(String.join(", ", errors));
+      exception.setExceptionMessages(errors);
+      throw exception;
+    }
+  }
+
+  private <T> T readOwner(Long ownerId, Supplier<T> read) {
+    return ownerId == null ? readYourWrites.readAll(read) : readYourWrites.readUser(ownerId, read);
+  }
+
+  /**
+   * Checked before any write, there is no Bean Validation provider and a write-behind change
+   * is acknowledged before the column could reject it.
+   */
+  private static void validateMessage(String message) throws BadRequestException {
+    if(StringUtils.isEmpty(message)) {
+      throw new BadRequestException("TODO message cannot be empty");
+    }
+    if(message.length() > Todo.MAX_MESSAGE_LENGTH) {
+      throw new BadRequestException("TODO message cannot be longer than " + Todo.MAX_MESSAGE_LENGTH + " characters");
+    }
+  }
+
+  private void statusUpdated(Long id, boolean status) {
+    var ownerId = ownerIndex.findOwner(id);
+    todoCache.invalidate(id);
+    todoListCache.invalidateTodo(id, ownerId);
+    readYourWrites.todoWritten(id, ownerId);
+    eventPublisher.publishEvent(TodoEvent.statusUpdated(id, ownerId, status));
+  }
+
+  private void messageUpdated(Long id, String message) {
+    var ownerId = ownerIndex.findOwner(id);
+    todoCache.invalidate(id);
+    todoListCache.invalidateTodo(id, ownerId);
+    readYourWrites.todoWritten(id, ownerId);
+    eventPublisher.publishEvent(TodoEvent.messageUpdated(id, ownerId, message));
+  }
+
+  /**
+   * Queues a partial update on the write-behind. The TODO is read from the primary when
+   * nothing is queued for it, since the update is based on its current version.
+   */
+  private void queueUpdate(Long id, Long expectedVersion, Consumer<Todo> change)
+      throws ResourceNotFoundException, PreconditionFailedException {
+    var updated = writeBehind.update(id, expectedVersion, () -> todoRepository.findById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Cannot find TODO with ID: " + id)), change);
+    todoCache.invalidate(id);
+    readYourWrites.todoWritten(id, ownerId(updated));
+  }
+
+  /**
+   * Updates without an expected version never fail a precondition.
+   */
+  private static IllegalStateException unexpectedPrecondition(Long id, PreconditionFailedException ex) {
+    return new IllegalStateException("Unconditional update of TODO " + id + " failed a precondition", ex);
+  }
+
+  /**
+   * Tells apart a missing TODO, a version mismatch and a TODO that already had the new
+   * value once a conditional UPDATE matched no row. The extra query only runs on that path.
+   *
+   * @return whether the TODO was updated
+   */
+  private boolean checkUpdated(int rows, Long id, Long expectedVersion)
+      throws ResourceNotFoundException, PreconditionFailedException {
+    if(rows > 0) {
+      return true;
+    }
+    var version = todoRepository.findVersionById(id)
+        .orElseThrow(() -> new ResourceNotFoundException("Cannot find TODO with ID: " + id));
+    if(expectedVersion != null && !expectedVersion.equals(version)) {
+      throw new PreconditionFailedException("TODO with ID: " + id + " has changed");
+    }
+    return false;
+  }
+
+  /**
+   * Summaries of the TODOs with the ascending {@code ids}, in the same order. IDs of TODOs
+   * deleted since they were read are skipped.
+   */
+  private List<TodoSummary> findSummariesById(long[] ids) {
+    if(ids.length == 0) {
+      return List.of();
+    }
+    var todos = new ArrayList<>(todoRepository.findAllSummariesById(Arrays.stream(ids).boxed().toList()));
+    todos.sort(Comparator.comparing(TodoSummary::getId));
+    return todos;
+  }
+
+  /**
+   * TODOs of {@code userId} queued by the write-behind, none when it is disabled.
+   */
+  private List<Todo> queued(Long userId) {
+    return userId == null ? List.of() : writeBehind.findByOwner(userId);
+  }
+
+  /**
+   * {@code todos} of {@code userId} ordered by ID, with the TODOs queued by the write-behind
+   * in place of their written state. The merged list is never cached, the queue is written
+   * within the flush interval.
+   */
+  private List<TodoSummary> withQueued(Long userId, List<TodoSummary> todos) {
+    var queued = queued(userId);
+    if(queued.isEmpty()) {
+      return todos;
+    }
+
+    var merged = new TreeMap<Long, TodoSummary>();
+    todos.forEach(x -> merged.put(x.getId(), x));
+    queued.forEach(x -> merged.put(x.getId(), TodoSummary.from(x)));
+    return new ArrayList<>(merged.values());
+  }
+
+  /**
+   * Bulk updates bypass {@code @UpdateTimestamp}, so they set the same JVM clock value.
+   */
+  private static Timestamp now() {
+    return new Timestamp(System.currentTimeMillis());
+  }
+
+  private static Long ownerId(Todo todo) {
+    return todo.getOwner() == null ? null : todo.getOwner().getId();
+  }
+
+  /**
+   * Index of the first TODO after {@code position} in TODOs sorted by ascending ID.
+   */
+  private static int indexAfter(List<TodoSummary> todos, Cursor position) {
+    if(position == null) {
+      return 0;
+    }
+
+    int low = 0;
+    int high = todos.size();
+    while(low < high) {
+      int middle = (low + high) >>> 1;
+      if(todos.get(middle).getId() <= position.getId()) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Cuts the page starting at {@code start} out of sorted TODOs. The input must either be
+   * complete or hold at least one row past the page, so a next page is never missed.
+   */
+  private static TodoPage toPage(List<TodoSummary> todos, int start, int limit, TodoFilter filter) {
+    int end = Math.min(start + limit, todos.size());
+    var items = todos.subList(start, end);
+    if(end == todos.size()) {
+      return new TodoPage(items, null);
+    }
+
+    var last = items.get(items.size() - 1);
+    return switch(filter.getSort()) {
+      case TodoFilter.SORT_CREATED_AT -> new TodoPage(items, CursorUtils.encode(last.getId(), last.getCreatedAt()));
+      case TodoFilter.SORT_UPDATED_AT -> new TodoPage(items, CursorUtils.encode(last.getId(), last.getUpdatedAt()));
+      default -> new TodoPage(items, CursorUtils.encode(last.getId()));
+    };
+  }
 }
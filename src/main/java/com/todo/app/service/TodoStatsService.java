@@ -0,0 +1,87 @@
+package com.todo.app.service;
+
+import com.todo.app.entity.TodoStats;
+import com.todo.app.event.TodoEvent;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.stats.TodoCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class TodoStatsService {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final TodoRepository todoRepository;
+  private final TodoCounters counters;
+  private final TransactionTemplate readOnlyTransaction;
+  // The first count starts from empty counters, whatever it finds is not drift
+  private volatile boolean reconciled;
+
+  public TodoStatsService(TodoRepository todoRepository,
+                          TodoCounters counters,
+                          PlatformTransactionManager transactionManager) {
+    this.todoRepository = todoRepository;
+    this.counters = counters;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  public TodoStats findByUserId(Long userId) {
+    return counters.get(userId);
+  }
+
+  /**
+   * Counts the state before the change out and the one after it in. Message updates carry
+   * no previous state and change no count.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onTodoEvent(TodoEvent event) {
+    if(event.getType() == TodoEvent.Type.CREATED) {
+      counters.add(event.getOwnerId(), event.getTodo().isDone(), 1);
+      return;
+    }
+
+    var previous = event.getPrevious();
+    if(previous == null) {
+      return;
+    }
+    counters.add(previous.getOwnerId(), previous.isDone(), -1);
+    if(event.getType() == TodoEvent.Type.UPDATED) {
+      var done = event.getTodo() != null ? event.getTodo().isDone() : event.getDone();
+      counters.add(event.getOwnerId(), done, 1);
+    }
+  }
+
+  /**
+   * Recounts every owner from the TODO table, at startup and then periodically, so counts
+   * that drifted (a missed event, a change made outside the application) are corrected.
+   * The counts are grouped by the database from the owner index, one row per owner.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${app.stats.reconcile-interval:PT10M}",
+      fixedDelayString = "${app.stats.reconcile-interval:PT10M}")
+  public void reconcile() {
+    var start = System.currentTimeMillis();
+    counters.beginBuild();
+
+    var snapshot = new TodoCounters();
+    readOnlyTransaction.executeWithoutResult(status -> {
+      todoRepository.countByOwner().forEach(x -> snapshot.put(x.getOwnerId(), x.getTotal(), x.getDone()));
+    });
+
+    var drifted = counters.finishBuild(snapshot);
+    if(drifted > 0 && reconciled) {
+      logger.warn("TODO counters of {} users were out of date and have been corrected", drifted);
+    }
+    reconciled = true;
+    logger.info("TODO counters of {} users reconciled in {} ms", counters.size(), System.currentTimeMillis() - start);
+  }
+}
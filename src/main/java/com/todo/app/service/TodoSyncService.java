@@ -0,0 +1,98 @@
+package com.todo.app.service;
+
+import com.todo.app.entity.TodoChanges;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.repository.TodoTombstoneRepository;
+import com.todo.app.specification.TodoSpecification;
+import com.todo.app.utils.CursorUtils;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Delta sync of the TODO list of a user. A sync token is the instant the changes were read
+ * at; the next sync returns the TODOs updated since, a seek on the {@code (owner_id,
+ * updated_at)} index, and the IDs of the tombstones recorded since, so its cost follows the
+ * number of changes instead of the size of the list.
+ * <p>
+ * Both are read from the primary, starting {@code overlap} before the token: the timestamp of
+ * a change is taken before its transaction commits, so a change committed just after a sync
+ * may be older than its token. Clients apply a change sent twice with no harm.
+ * <p>
+ * Tombstones are kept for {@code retention} and only trusted from the start of this process,
+ * since neither the in-memory database nor the log storage engine keeps them across restarts.
+ * A token older than that gets the whole list.
+ */
+@Service
+@Timed("todo.sync")
+public class TodoSyncService {
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final TodoRepository todoRepository;
+  private final TodoTombstoneRepository tombstoneRepository;
+  private final Duration retention;
+  private final Duration overlap;
+  private final long startedAt = System.currentTimeMillis();
+
+  public TodoSyncService(TodoRepository todoRepository,
+                         TodoTombstoneRepository tombstoneRepository,
+                         @Value("${app.sync.tombstone-retention:P30D}") Duration retention,
+                         @Value("${app.sync.overlap:PT5S}") Duration overlap) {
+    this.todoRepository = todoRepository;
+    this.tombstoneRepository = tombstoneRepository;
+    this.retention = retention;
+    this.overlap = overlap;
+  }
+
+  /**
+   * Changes of the TODOs of {@code userId} since the token {@code since}, or the whole list
+   * when there is no token or the tombstones it needs are gone.
+   */
+  public TodoChanges findChanges(Long userId, String since) throws BadRequestException {
+    var sinceAt = CursorUtils.decodeSyncToken(since);
+    var readAt = System.currentTimeMillis();
+    var next = CursorUtils.encodeSyncToken(new Timestamp(readAt));
+
+    var filter = TodoFilter.byOwner(userId);
+    var from = sinceAt == null ? Long.MIN_VALUE : sinceAt.getTime() - overlap.toMillis();
+    if(from < Math.max(readAt - retention.toMillis(), startedAt)) {
+      var items = todoRepository.findSummaries(new TodoSpecification(filter), TodoSpecification.sort(filter), Integer.MAX_VALUE);
+      return new TodoChanges(true, items, List.of(), next);
+    }
+
+    filter.setUpdatedAfter(new Timestamp(from).toInstant());
+    filter.setSort(TodoFilter.SORT_UPDATED_AT);
+    var items = todoRepository.findSummaries(new TodoSpecification(filter), TodoSpecification.sort(filter), Integer.MAX_VALUE);
+    var updatedIds = items.stream().map(TodoSummary::getId).collect(Collectors.toSet());
+    // A TODO given back to the user since is in the items, not deleted
+    var deletedIds = tombstoneRepository.findTodoIdsByOwnerIdDeletedSince(userId, new Timestamp(from)).stream()
+        .filter(x -> !updatedIds.contains(x))
+        .toList();
+    return new TodoChanges(false, items, deletedIds, next);
+  }
+
+  /**
+   * Deletes the tombstones older than the retention, tokens that needed them get the whole
+   * list from now on.
+   */
+  @Scheduled(initialDelayString = "${app.sync.compaction-interval:PT1H}",
+      fixedDelayString = "${app.sync.compaction-interval:PT1H}")
+  public void compact() {
+    var deleted = tombstoneRepository.deleteByDeletedAtBefore(new Timestamp(System.currentTimeMillis() - retention.toMillis()));
+    if(deleted > 0) {
+      logger.info("Compacted {} TODO tombstones older than {}", deleted, retention);
+    }
+  }
+}
@@ -1,12 +1,17 @@
 package com.todo.app.service;
 
+import com.todo.app.cache.EntityCache;
+import com.todo.app.datasource.ReadYourWrites;
 import com.todo.app.entity.User;
+import com.todo.app.event.UserEvent;
 import com.todo.app.exceptions.BadRequestException;
 import com.todo.app.exceptions.ResourceAlreadyExistsException;
 import com.todo.app.exceptions.ResourceNotFoundException;
 import com.todo.app.repository.UserRepository;
 import com.todo.app.utils.StringUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -14,12 +19,16 @@ import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Timed("user.service")
 public class UserService {
 
   private final UserRepository userRepository;
+  private final EntityCache<User> userCache;
+  private final ReadYourWrites readYourWrites;
+  private final ApplicationEventPublisher eventPublisher;
 
   public User findById(Long id) throws ResourceNotFoundException {
-    var user = userRepository.findById(id);
+    var user = userCache.get(id, x -> readYourWrites.readUser(x, () -> userRepository.findById(x)));
 
     if(user.isEmpty()) {
       throw new ResourceNotFoundException("Cannot find USER with ID:" + id);
@@ -44,7 +53,11 @@ public class UserService {
       throw new ResourceAlreadyExistsException("USER with ID:" + user.getId() + " already exists");
     }
 
-    return userRepository.save(user);
+    var createdUser = userRepository.save(user);
+    userCache.put(createdUser.getId(), createdUser);
+    readYourWrites.userWritten(createdUser.getId());
+    eventPublisher.publishEvent(UserEvent.created(createdUser.getId()));
+    return createdUser;
   }
 
 
@@ -59,24 +72,36 @@ public class UserService {
     }
 
     userRepository.save(user);
+    userCache.invalidate(user.getId());
+    readYourWrites.userWritten(user.getId());
+    eventPublisher.publishEvent(UserEvent.updated(user.getId()));
 
   }
 
   public void updateName(Long id, String name) throws ResourceNotFoundException, BadRequestException {
-    var user = findById(id);
+    var user = userRepository.findById(id);
+    if(user.isEmpty()) {
+      throw new ResourceNotFoundException("Cannot find USER with ID:" + id);
+    }
+
     if(StringUtils.isEmpty(name)) {
       throw new BadRequestException("User name cannot be empty");
     }
-    user.setName(name);
-    userRepository.save(user);
+    user.get().setName(name);
+    userRepository.save(user.get());
+    userCache.invalidate(id);
+    readYourWrites.userWritten(id);
+    eventPublisher.publishEvent(UserEvent.updated(id));
   }
 
   public void deleteById(Long id) throws ResourceNotFoundException {
-    if(!userRepository.existsById(id)) {
+    if(userRepository.removeById(id) == 0) {
       throw new ResourceNotFoundException("Cannot find USER with ID:" + id);
     }
 
-    userRepository.deleteById(id);
+    userCache.invalidate(id);
+    readYourWrites.userWritten(id);
+    eventPublisher.publishEvent(UserEvent.deleted(id));
   }
 
   public void delete(User user) throws ResourceNotFoundException {
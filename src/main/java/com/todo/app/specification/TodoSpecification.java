@@ -1,28 +1,105 @@
 package com.todo.app.specification;
 
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.utils.Cursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Translates a {@link TodoFilter} into predicates. Equality filters (owner, done) come
+ * first and the time range or sort column last, matching the column order of the indexes
+ * declared on {@link Todo}, so each supported combination is an index seek.
+ */
 @RequiredArgsConstructor
 public class TodoSpecification implements Specification<Todo> {
 
-  private final Todo filter;
+  private final TodoFilter filter;
+
+  /**
+   * Seek predicate for keyset pagination in the sort order of {@code filter}: only TODOs
+   * that come after {@code cursor} match, so the database jumps straight to the next page
+   * through an index and deep pages cost the same as the first one. For timestamp sorts
+   * the ID breaks ties.
+   */
+  public static Specification<Todo> after(TodoFilter filter, Cursor cursor) {
+    if(cursor == null) {
+      return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+    }
+
+    boolean ascending = TodoFilter.ASCENDING.equals(filter.getDirection());
+    if(TodoFilter.SORT_ID.equals(filter.getSort())) {
+      return (root, query, criteriaBuilder) -> ascending
+          ? criteriaBuilder.greaterThan(root.get("id"), cursor.getId())
+          : criteriaBuilder.lessThan(root.get("id"), cursor.getId());
+    }
+
+    return (root, query, criteriaBuilder) -> {
+      var column = root.<Timestamp>get(filter.getSort());
+      var id = root.<Long>get("id");
+      var value = cursor.getSortValue();
+      // The redundant bound on the sort column is what lets the database seek the index
+      if(ascending) {
+        return criteriaBuilder.and(
+            criteriaBuilder.greaterThanOrEqualTo(column, value),
+            criteriaBuilder.or(criteriaBuilder.greaterThan(column, value), criteriaBuilder.greaterThan(id, cursor.getId())));
+      }
+      return criteriaBuilder.and(
+          criteriaBuilder.lessThanOrEqualTo(column, value),
+          criteriaBuilder.or(criteriaBuilder.lessThan(column, value), criteriaBuilder.lessThan(id, cursor.getId())));
+    };
+  }
+
+  /**
+   * Sort order of {@code filter}, with the ID as tie breaker so the order is total.
+   */
+  public static Sort sort(TodoFilter filter) {
+    var direction = TodoFilter.DESCENDING.equals(filter.getDirection()) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    if(TodoFilter.SORT_ID.equals(filter.getSort())) {
+      return Sort.by(direction, "id");
+    }
+    return Sort.by(direction, filter.getSort(), "id");
+  }
 
   @Override
   public Predicate toPredicate(Root<Todo> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-    Predicate predicate = criteriaBuilder.disjunction();
+    List<Predicate> predicates = new ArrayList<>();
 
-    if(filter.getOwner() != null && filter.getOwner().getId() != null) {
+    if(filter.getOwner() != null) {
       var owner = root.get("owner");
       var ownerId = owner.get("id");
-      predicate.getExpressions().add(criteriaBuilder.equal(ownerId, filter.getOwner().getId()));
+      predicates.add(criteriaBuilder.equal(ownerId, filter.getOwner()));
     }
-    return predicate;
+
+    if(filter.getDone() != null) {
+      predicates.add(criteriaBuilder.equal(root.get("done"), filter.getDone()));
+    }
+
+    var createdAt = root.<Timestamp>get("createdAt");
+    if(filter.getCreatedAfter() != null) {
+      predicates.add(criteriaBuilder.greaterThanOrEqualTo(createdAt, Timestamp.from(filter.getCreatedAfter())));
+    }
+    if(filter.getCreatedBefore() != null) {
+      predicates.add(criteriaBuilder.lessThan(createdAt, Timestamp.from(filter.getCreatedBefore())));
+    }
+
+    var updatedAt = root.<Timestamp>get("updatedAt");
+    if(filter.getUpdatedAfter() != null) {
+      predicates.add(criteriaBuilder.greaterThanOrEqualTo(updatedAt, Timestamp.from(filter.getUpdatedAfter())));
+    }
+    if(filter.getUpdatedBefore() != null) {
+      predicates.add(criteriaBuilder.lessThan(updatedAt, Timestamp.from(filter.getUpdatedBefore())));
+    }
+
+    return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
   }
 }
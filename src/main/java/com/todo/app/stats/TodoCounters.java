@@ -0,0 +1,150 @@
+package com.todo.app.stats;
+
+import com.todo.app.entity.TodoStats;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Total and done TODO counts of every owner, updated incrementally so reading them is a
+ * map lookup however many TODOs an owner has. Only the counts of each owner are kept: the
+ * changes carry the owner and status before and after, see
+ * {@link com.todo.app.event.TodoEvent#getPrevious()}, so memory grows with the owners and not
+ * with the TODOs. Counts are striped {@link LongAdder}s, so concurrent writers of the same
+ * owner do not contend.
+ */
+public class TodoCounters {
+
+  private static class Counter {
+    private final LongAdder total = new LongAdder();
+    private final LongAdder done = new LongAdder();
+
+    private void add(boolean done, long delta) {
+      total.add(delta);
+      if(done) {
+        this.done.add(delta);
+      }
+    }
+  }
+
+  // Changes take the read lock, they only touch concurrent maps; finishBuild swaps the maps under the write lock
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Map<Long, Counter> counters = new ConcurrentHashMap<>();
+  // Non null while a rebuild runs: deltas recorded since it started, applied on top of the rebuilt counts
+  private Map<Long, Counter> changedDuringBuild;
+
+  /**
+   * Counts a TODO of {@code ownerId} in, with a delta of 1, or out, with -1. TODOs without an
+   * owner are not counted.
+   */
+  public void add(Long ownerId, boolean done, long delta) {
+    if(ownerId == null) {
+      return;
+    }
+
+    lock.readLock().lock();
+    try {
+      counters.computeIfAbsent(ownerId, x -> new Counter()).add(done, delta);
+      if(changedDuringBuild != null) {
+        changedDuringBuild.computeIfAbsent(ownerId, x -> new Counter()).add(done, delta);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the counts of {@code ownerId}, as read by a rebuild.
+   */
+  public void put(Long ownerId, long total, long done) {
+    var counter = new Counter();
+    counter.total.add(total);
+    counter.done.add(done);
+    counters.put(ownerId, counter);
+  }
+
+  public TodoStats get(Long ownerId) {
+    lock.readLock().lock();
+    try {
+      var counter = counters.get(ownerId);
+      if(counter == null) {
+        return new TodoStats(ownerId, 0, 0, 0);
+      }
+      long total = counter.total.sum();
+      long done = counter.done.sum();
+      return new TodoStats(ownerId, total, done, total - done);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Number of owners counted.
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return counters.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Starts a rebuild. Changes recorded from now on are added to the counts passed to
+   * {@link #finishBuild(TodoCounters)}, which must be read after this call. A change
+   * committed just before the read but recorded after this call is counted twice until the
+   * next rebuild, a window of one event delivery.
+   */
+  public void beginBuild() {
+    lock.writeLock().lock();
+    try {
+      changedDuringBuild = new ConcurrentHashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces every count with the ones of {@code snapshot}, a fresh instance filled from the
+   * database, plus the changes recorded since {@link #beginBuild()}.
+   *
+   * @return number of owners whose counts were wrong
+   */
+  public int finishBuild(TodoCounters snapshot) {
+    lock.writeLock().lock();
+    try {
+      changedDuringBuild.forEach((ownerId, delta) -> {
+        var counter = snapshot.counters.computeIfAbsent(ownerId, x -> new Counter());
+        counter.total.add(delta.total.sum());
+        counter.done.add(delta.done.sum());
+      });
+
+      int drifted = 0;
+      for(var ownerId : union(counters.keySet(), snapshot.counters.keySet())) {
+        var current = get(ownerId);
+        var rebuilt = snapshot.get(ownerId);
+        if(current.getTotal() != rebuilt.getTotal() || current.getDone() != rebuilt.getDone()) {
+          ++drifted;
+        }
+      }
+
+      counters = snapshot.counters;
+      changedDuringBuild = null;
+      return drifted;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Set<Long> union(Set<Long> first, Set<Long> second) {
+    Set<Long> union = new HashSet<>(first);
+    union.addAll(second);
+    return union;
+  }
+}
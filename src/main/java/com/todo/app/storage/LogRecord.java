@@ -0,0 +1,179 @@
+package com.todo.app.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.zip.CRC32;
+
+/**
+ * One change in the {@link MutationLog}: the full row of a created or updated TODO or user,
+ * or the ID of a deleted one. Replaying the records of an ID in order always ends in its
+ * latest state, whatever state the replay starts from.
+ * <p>
+ * On disk a record is its payload length, the CRC32 of the payload and the payload, so a
+ * record torn by a crash is detected and ends the replay of its segment.
+ */
+public record LogRecord(Type type, long id, String text, boolean done, Timestamp createdAt,
+                        Timestamp updatedAt, long version, Long ownerId) {
+
+  public enum Type { TODO_PUT, TODO_DELETE, USER_PUT, USER_DELETE }
+
+  private static final Type[] types = Type.values();
+  private static final int MAX_PAYLOAD = 1 << 20;
+
+  public static LogRecord todoPut(long id, String message, boolean done, Timestamp createdAt,
+                                  Timestamp updatedAt, long version, Long ownerId) {
+    return new LogRecord(Type.TODO_PUT, id, message, done, createdAt, updatedAt, version, ownerId);
+  }
+
+  public static LogRecord todoDeleted(long id) {
+    return new LogRecord(Type.TODO_DELETE, id, null, false, null, null, 0, null);
+  }
+
+  public static LogRecord userPut(long id, String name) {
+    return new LogRecord(Type.USER_PUT, id, name, false, null, null, 0, null);
+  }
+
+  public static LogRecord userDeleted(long id) {
+    return new LogRecord(Type.USER_DELETE, id, null, false, null, null, 0, null);
+  }
+
+  public boolean isTodo() {
+    return type == Type.TODO_PUT || type == Type.TODO_DELETE;
+  }
+
+  public boolean isDelete() {
+    return type == Type.TODO_DELETE || type == Type.USER_DELETE;
+  }
+
+  /**
+   * The framed record, ready to be appended to a segment.
+   */
+  public byte[] encode() {
+    try {
+      var payload = new ByteArrayOutputStream(64);
+      var out = new DataOutputStream(payload);
+      out.writeByte(type.ordinal());
+      out.writeLong(id);
+      switch(type) {
+        case TODO_PUT -> {
+          writeString(out, text);
+          out.writeBoolean(done);
+          writeTimestamp(out, createdAt);
+          writeTimestamp(out, updatedAt);
+          out.writeLong(version);
+          out.writeLong(ownerId == null ? -1 : ownerId);
+        }
+        case USER_PUT -> writeString(out, text);
+        default -> { }
+      }
+
+      var bytes = payload.toByteArray();
+      var crc = new CRC32();
+      crc.update(bytes);
+
+      var framed = new ByteArrayOutputStream(bytes.length + 8);
+      var frame = new DataOutputStream(framed);
+      frame.writeInt(bytes.length);
+      frame.writeInt((int) crc.getValue());
+      frame.write(bytes);
+      return framed.toByteArray();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Reads the next record, null at the end of the stream.
+   *
+   * @throws StreamCorruptedException when the record is torn or does not match its CRC
+   */
+  public static LogRecord read(DataInputStream in) throws IOException {
+    var first = in.read();
+    if(first < 0) {
+      return null;
+    }
+
+    byte[] bytes;
+    int expectedCrc;
+    try {
+      var length = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+      expectedCrc = in.readInt();
+      if(length <= 0 || length > MAX_PAYLOAD) {
+        throw new StreamCorruptedException("Invalid record length " + length);
+      }
+      bytes = new byte[length];
+      in.readFully(bytes);
+    } catch (EOFException ex) {
+      throw new StreamCorruptedException("Torn record");
+    }
+
+    var crc = new CRC32();
+    crc.update(bytes);
+    if((int) crc.getValue() != expectedCrc) {
+      throw new StreamCorruptedException("Record does not match its CRC");
+    }
+
+    var payload = new DataInputStream(new ByteArrayInputStream(bytes));
+    var type = types[payload.readUnsignedByte()];
+    var id = payload.readLong();
+    return switch(type) {
+      case TODO_PUT -> {
+        var message = readString(payload);
+        var done = payload.readBoolean();
+        var createdAt = readTimestamp(payload);
+        var updatedAt = readTimestamp(payload);
+        var version = payload.readLong();
+        var ownerId = payload.readLong();
+        yield todoPut(id, message, done, createdAt, updatedAt, version, ownerId < 0 ? null : ownerId);
+      }
+      case USER_PUT -> userPut(id, readString(payload));
+      case TODO_DELETE -> todoDeleted(id);
+      case USER_DELETE -> userDeleted(id);
+    };
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if(value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    var length = in.readInt();
+    if(length < 0) {
+      return null;
+    }
+    var bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeTimestamp(DataOutputStream out, Timestamp value) throws IOException {
+    out.writeLong(value == null ? Long.MIN_VALUE : value.getTime());
+    out.writeInt(value == null ? 0 : value.getNanos());
+  }
+
+  private static Timestamp readTimestamp(DataInput in) throws IOException {
+    var millis = in.readLong();
+    var nanos = in.readInt();
+    if(millis == Long.MIN_VALUE) {
+      return null;
+    }
+    var timestamp = new Timestamp(millis);
+    timestamp.setNanos(nanos);
+    return timestamp;
+  }
+}
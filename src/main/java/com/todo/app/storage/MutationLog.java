@@ -0,0 +1,369 @@
+package com.todo.app.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of {@link LogRecord}s on local disk, split in numbered segment files.
+ * <p>
+ * Appends are queued to a single writer thread, which writes everything queued since its last
+ * write with one gathering {@link FileChannel} write and one {@code fsync}, so concurrent
+ * writers share the cost of syncing (group commit). A segment that reaches
+ * {@code segmentBytes} is closed and the next one started. So is a segment whose write failed:
+ * it may end with a torn record, where replay stops reading it, so nothing is appended after
+ * it. When no new segment can be started the log fails and rejects every append.
+ * <p>
+ * A snapshot {@code snapshot-N} holds every row as it was after all the records of the
+ * segments before {@code N}. Writing one deletes those segments and older snapshots, so the
+ * log stays about as large as the data and the changes made since the last snapshot.
+ */
+public class MutationLog implements Closeable {
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".bin";
+  private static final int MAX_BATCH = 4096;
+  private static final int READ_BUFFER = 1 << 16;
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final Path directory;
+  private final long segmentBytes;
+  private final boolean fsync;
+
+  private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+  private final Pending close = new Pending(null, new CompletableFuture<>());
+  private Thread writer;
+  private volatile boolean closed;
+  // Set by the writer thread when it could not start a segment after a failed write
+  private volatile IOException failure;
+
+  // Only used by the writer thread once it started
+  private FileChannel channel;
+  private long segment;
+  private long segmentSize;
+
+  /**
+   * A record to append, or a request to start the next segment when {@code bytes} is null.
+   * Completes with the segment the record was written to, or the segment just started.
+   */
+  private record Pending(byte[] bytes, CompletableFuture<Long> written) {}
+
+  public MutationLog(Path directory, long segmentBytes, boolean fsync) {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.fsync = fsync;
+  }
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Number of the latest snapshot, 0 when there is none.
+   */
+  public long latestSnapshot() throws IOException {
+    return list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).stream().mapToLong(Long::longValue).max().orElse(0);
+  }
+
+  /**
+   * Sends every row of the latest snapshot to {@code consumer} and returns its number, 0 when
+   * there is no snapshot.
+   */
+  public long readSnapshot(Consumer<LogRecord> consumer) throws IOException {
+    var snapshot = latestSnapshot();
+    if(snapshot > 0 && read(file(SNAPSHOT_PREFIX, snapshot, SNAPSHOT_SUFFIX), consumer)) {
+      logger.warn("Snapshot {} ends with a corrupt record", snapshot);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Sends the records of the segments numbered {@code fromSegment} and later to
+   * {@code consumer}, in the order they were appended. A segment ends at its first torn or
+   * corrupt record, which only a crash while it was written leaves behind.
+   */
+  public void readSegments(long fromSegment, Consumer<LogRecord> consumer) throws IOException {
+    for(var number : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+      if(number >= fromSegment && read(file(SEGMENT_PREFIX, number, SEGMENT_SUFFIX), consumer)) {
+        logger.warn("Segment {} ends with a torn record, the records after it were dropped", number);
+      }
+    }
+  }
+
+  /**
+   * Starts appending to a new segment, numbered after every existing segment and snapshot,
+   * so a segment left behind by a crash is never written again.
+   */
+  public synchronized void open() throws IOException {
+    Files.createDirectories(directory);
+    var last = Math.max(latestSnapshot(),
+        list(SEGMENT_PREFIX, SEGMENT_SUFFIX).stream().mapToLong(Long::longValue).max().orElse(0));
+    openSegment(last + 1);
+
+    writer = new Thread(this::writeLoop, "mutation-log-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Queues {@code record}, the future completes once it is written, and synced to disk
+   * unless {@code fsync} is off. Records are written in the order they were queued.
+   */
+  public CompletableFuture<Long> append(LogRecord record) {
+    return enqueue(record.encode());
+  }
+
+  /**
+   * Closes the current segment after everything queued so far and returns the number of the
+   * segment started after it.
+   */
+  public long roll() {
+    return enqueue(null).join();
+  }
+
+  /**
+   * Writes snapshot {@code number} with the rows {@code rows} sends to the consumer it is
+   * given, then deletes the segments and snapshots it replaces. The file only gets its final
+   * name once it is fully written and synced, so a crash never leaves a partial snapshot.
+   */
+  public void writeSnapshot(long number, Consumer<Consumer<LogRecord>> rows) throws IOException {
+    var target = file(SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX);
+    var temporary = directory.resolve(target.getFileName() + ".tmp");
+
+    try(var file = new FileOutputStream(temporary.toFile());
+        var out = new BufferedOutputStream(file, READ_BUFFER)) {
+      rows.accept(record -> {
+        try {
+          out.write(record.encode());
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+      out.flush();
+      file.getFD().sync();
+    } catch (UncheckedIOException ex) {
+      Files.deleteIfExists(temporary);
+      throw ex.getCause();
+    }
+
+    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory();
+
+    for(var segmentNumber : list(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+      if(segmentNumber < number) {
+        Files.deleteIfExists(file(SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+      }
+    }
+    for(var snapshotNumber : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+      if(snapshotNumber < number) {
+        Files.deleteIfExists(file(SNAPSHOT_PREFIX, snapshotNumber, SNAPSHOT_SUFFIX));
+      }
+    }
+  }
+
+  /**
+   * Writes what is still queued and closes the current segment.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if(closed || writer == null) {
+      return;
+    }
+    closed = true;
+    queue.add(close);
+    try {
+      writer.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private CompletableFuture<Long> enqueue(byte[] bytes) {
+    if(closed) {
+      throw new IllegalStateException("Mutation log is closed");
+    }
+    if(failure != null) {
+      throw new IllegalStateException("Mutation log failed", failure);
+    }
+    var pending = new Pending(bytes, new CompletableFuture<>());
+    queue.add(pending);
+    return pending.written();
+  }
+
+  private void writeLoop() {
+    List<Pending> batch = new ArrayList<>();
+    List<ByteBuffer> buffers = new ArrayList<>();
+    var running = true;
+    while(running) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException ex) {
+        break;
+      }
+      queue.drainTo(batch, MAX_BATCH);
+
+      var from = 0;
+      var end = batch.size();
+      try {
+        if(failure != null) {
+          throw failure;
+        }
+        for(int i = 0; i < end; ++i) {
+          var pending = batch.get(i);
+          if(pending == close) {
+            running = false;
+            end = i;
+            break;
+          }
+
+          var bytes = pending.bytes();
+          if(bytes == null || segmentSize > 0 && segmentSize + bytes.length > segmentBytes) {
+            write(buffers, batch, from, i);
+            from = i;
+            channel.close();
+            openSegment(segment + 1);
+            if(bytes == null) {
+              pending.written().complete(segment);
+              from = i + 1;
+              continue;
+            }
+          }
+          buffers.add(ByteBuffer.wrap(bytes));
+          segmentSize += bytes.length;
+        }
+        write(buffers, batch, from, end);
+        // Appends that raced with close
+        batch.subList(Math.min(end + 1, batch.size()), batch.size())
+            .forEach(x -> x.written().completeExceptionally(new IllegalStateException("Mutation log is closed")));
+      } catch (IOException | RuntimeException ex) {
+        if(ex != failure) {
+          logger.error("Cannot write to the mutation log in {}", directory, ex);
+          startSegmentAfterFailure();
+        }
+        running = !batch.contains(close);
+        batch.stream().filter(x -> x != close).forEach(x -> x.written().completeExceptionally(ex));
+      }
+      buffers.clear();
+      batch.clear();
+    }
+
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      logger.error("Cannot close the mutation log segment {}", segment, ex);
+    }
+    queue.forEach(x -> x.written().completeExceptionally(new IllegalStateException("Mutation log is closed")));
+    close.written().complete(segment);
+  }
+
+  /**
+   * Leaves the segment whose write failed, records appended to it afterwards could not be
+   * replayed. Fails the log when the next segment cannot be started.
+   */
+  private void startSegmentAfterFailure() {
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      logger.warn("Cannot close the mutation log segment {}", segment, ex);
+    }
+    try {
+      openSegment(segment + 1);
+    } catch (IOException ex) {
+      failure = ex;
+      logger.error("Cannot start a mutation log segment in {}, appends are rejected", directory, ex);
+    }
+  }
+
+  /**
+   * Writes {@code buffers}, syncs them and completes the records of {@code batch} between
+   * {@code from} and {@code to}.
+   */
+  private void write(List<ByteBuffer> buffers, List<Pending> batch, int from, int to) throws IOException {
+    if(!buffers.isEmpty()) {
+      var array = buffers.toArray(ByteBuffer[]::new);
+      var last = array[array.length - 1];
+      while(last.hasRemaining()) {
+        channel.write(array);
+      }
+      if(fsync) {
+        channel.force(false);
+      }
+      buffers.clear();
+    }
+    for(int i = from; i < to; ++i) {
+      batch.get(i).written().complete(segment);
+    }
+  }
+
+  private void openSegment(long number) throws IOException {
+    channel = FileChannel.open(file(SEGMENT_PREFIX, number, SEGMENT_SUFFIX),
+        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    segment = number;
+    segmentSize = 0;
+    syncDirectory();
+  }
+
+  /**
+   * Reads every record of {@code file}, returns whether it stopped at a torn or corrupt record.
+   */
+  private boolean read(Path file, Consumer<LogRecord> consumer) throws IOException {
+    try(var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), READ_BUFFER))) {
+      LogRecord record;
+      while((record = LogRecord.read(in)) != null) {
+        consumer.accept(record);
+      }
+      return false;
+    } catch (StreamCorruptedException ex) {
+      return true;
+    }
+  }
+
+  private List<Long> list(String prefix, String suffix) throws IOException {
+    if(!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try(Stream<Path> files = Files.list(directory)) {
+      return files.map(x -> x.getFileName().toString())
+          .filter(x -> x.startsWith(prefix) && x.endsWith(suffix))
+          .map(x -> Long.parseLong(x.substring(prefix.length(), x.length() - suffix.length())))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private Path file(String prefix, long number, String suffix) {
+    return directory.resolve(String.format("%s%020d%s", prefix, number, suffix));
+  }
+
+  private void syncDirectory() {
+    try(var channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException ex) {
+      // Not every platform can sync a directory, the files themselves are synced
+    }
+  }
+}
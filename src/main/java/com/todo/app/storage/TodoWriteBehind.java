@@ -0,0 +1,506 @@
+package com.todo.app.storage;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.exceptions.PreconditionFailedException;
+import com.todo.app.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind of the creates and partial updates of TODOs. A change is acknowledged once it
+ * is queued, and appended to the {@link MutationLog} when there is one, whose group commit
+ * shares one fsync between concurrent writers. A single thread then writes the queue every
+ * {@code flushInterval}, or as soon as {@code batchSize} TODOs are queued: the changes of a
+ * TODO are coalesced into its latest state, and every queued TODO is inserted or updated with
+ * JDBC batches in one transaction.
+ * <p>
+ * Queued TODOs are returned by {@link #find(long)} and {@link #findByOwner(long)} until their
+ * transaction committed and the {@link Listener} ran, so reads that consult them never see
+ * the state before a write. Other writes of a TODO run inside {@link #barrier(long)}, which
+ * writes what is queued for that TODO first and holds off its new changes until they are
+ * done; writes of many TODOs run inside {@link #barrier()}, which does the same for the whole
+ * queue. Either must be taken outside of any transaction, the writer thread needs a
+ * connection of its own.
+ * <p>
+ * A change that cannot be written is dropped, counted in {@link #failureCount()}, and undone
+ * in the mutation log with a record of the state before it, the delete of a TODO that was
+ * never inserted, so replay does not bring it back.
+ * <p>
+ * Without a mutation log the queue is as durable as the in-memory database. A disabled
+ * instance queues nothing and its barriers do nothing.
+ */
+public class TodoWriteBehind implements Closeable {
+
+  private static final int LOCK_STRIPES = 64;
+  private static final String INSERT = "insert into todo (id, message, done, created_at, updated_at, version, owner_id) "
+      + "values (?, ?, ?, ?, ?, ?, ?)";
+  private static final String UPDATE = "update todo set message = ?, done = ?, updated_at = ?, version = ? where id = ?";
+  private static final Barrier NO_BARRIER = () -> { };
+
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final boolean enabled;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transaction;
+  private final MutationLog mutationLog;
+  private final Listener listener;
+  private final int batchSize;
+  private final int maxPending;
+  private final ScheduledExecutorService writer;
+  private final ReadWriteLock barrierLock = new ReentrantReadWriteLock();
+  private final Lock[] locks = new Lock[LOCK_STRIPES];
+  // Changed under this, read without a lock: a change moves to flushing before it leaves
+  // pending, so reading pending then flushing always finds it
+  private volatile Map<Long, Queued> pending = new ConcurrentHashMap<>();
+  private volatile Map<Long, Queued> flushing = Map.of();
+  private final AtomicLong flushes = new AtomicLong();
+  private final AtomicLong flushNanos = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+
+  /**
+   * Told about every TODO once its queued state is committed, on the writer thread.
+   */
+  public interface Listener {
+    /**
+     * @param previous state written before the coalesced changes, null when the TODO was
+     *     created
+     */
+    void written(Todo todo, Todo previous);
+  }
+
+  public interface Loader {
+    Todo load() throws ResourceNotFoundException;
+  }
+
+  /**
+   * Held while a write bypassing the queue runs.
+   */
+  public interface Barrier extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /**
+   * @param base state of the TODO in the database before its first queued change, null for
+   *     a TODO whose insert is queued
+   */
+  private record Queued(Todo todo, Todo base) {
+    boolean created() {
+      return base == null;
+    }
+  }
+
+  /**
+   * @param mutationLog log every change is appended to before it is acknowledged, null for none
+   */
+  public TodoWriteBehind(boolean enabled, JdbcTemplate jdbcTemplate, TransactionTemplate transaction,
+                         MutationLog mutationLog, Listener listener, Duration flushInterval, int batchSize,
+                         int maxPending) {
+    this.enabled = enabled;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transaction = transaction;
+    this.mutationLog = mutationLog;
+    this.listener = listener;
+    this.batchSize = batchSize;
+    this.maxPending = maxPending;
+    for(int i = 0; i < LOCK_STRIPES; ++i) {
+      locks[i] = new ReentrantLock();
+    }
+    if(enabled) {
+      writer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("write-behind-"));
+      writer.scheduleWithFixedDelay(() -> writeQueued(null), flushInterval.toMillis(), flushInterval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    } else {
+      writer = null;
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Queues the insert of {@code todo}, which already has its ID, timestamps and version.
+   */
+  public void create(Todo todo) {
+    CompletableFuture<Long> logged;
+    var lock = lock(todo.getId());
+    barrierLock.readLock().lock();
+    lock.lock();
+    try {
+      logged = enqueue(todo, null);
+    } finally {
+      lock.unlock();
+      barrierLock.readLock().unlock();
+    }
+    awaitLogged(logged);
+  }
+
+  /**
+   * Queues an update of the TODO {@code id}: {@code change} is applied to a copy of its queued
+   * state, or of the one {@code loader} reads when nothing is queued, which gets the next
+   * version. Changes of one TODO are applied one at a time, and the state is read and queued
+   * outside of any barrier, so none is lost.
+   *
+   * @return the new state of the TODO
+   */
+  public Todo update(long id, Long expectedVersion, Loader loader, Consumer<Todo> change)
+      throws ResourceNotFoundException, PreconditionFailedException {
+    CompletableFuture<Long> logged;
+    Todo updated;
+    var lock = lock(id);
+    barrierLock.readLock().lock();
+    lock.lock();
+    try {
+      var current = find(id);
+      current = current != null ? current : loader.load();
+      if(expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+        throw new PreconditionFailedException("TODO with ID: " + id + " has changed");
+      }
+
+      updated = copy(current);
+      change.accept(updated);
+      updated.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+      updated.setVersion(current.getVersion() + 1);
+      logged = enqueue(updated, current);
+    } finally {
+      lock.unlock();
+      barrierLock.readLock().unlock();
+    }
+    awaitLogged(logged);
+    return updated;
+  }
+
+  /**
+   * Queued state of the TODO {@code id}, null when nothing is queued for it. Takes no lock,
+   * every read of a TODO goes through here.
+   */
+  public Todo find(long id) {
+    if(!enabled) {
+      return null;
+    }
+
+    var queued = pending.get(id);
+    queued = queued != null ? queued : flushing.get(id);
+    return queued == null ? null : queued.todo();
+  }
+
+  /**
+   * Queued states of the TODOs of {@code ownerId}. Scans the queue, which holds at most what
+   * was changed in the last flush interval, without a lock.
+   */
+  public List<Todo> findByOwner(long ownerId) {
+    if(!enabled) {
+      return List.of();
+    }
+
+    var queue = pending;
+    var inFlight = flushing;
+    if(queue.isEmpty() && inFlight.isEmpty()) {
+      return List.of();
+    }
+
+    Map<Long, Todo> todos = new LinkedHashMap<>();
+    for(var queued : List.of(inFlight, queue)) {
+      queued.values().stream()
+          .filter(x -> Objects.equals(ownerId(x.todo()), ownerId))
+          .forEach(x -> todos.put(x.todo().getId(), x.todo()));
+    }
+    return new ArrayList<>(todos.values());
+  }
+
+  /**
+   * Writes what is queued for the TODO {@code id}, then holds off its new changes until the
+   * barrier is closed. The rest of the queue is left to the writer.
+   */
+  public Barrier barrier(long id) {
+    if(!enabled) {
+      return NO_BARRIER;
+    }
+
+    var lock = lock(id);
+    lock.lock();
+    try {
+      await(writer.submit(() -> writeQueued(id)));
+    } catch (RuntimeException ex) {
+      lock.unlock();
+      throw ex;
+    }
+    return lock::unlock;
+  }
+
+  /**
+   * Writes the queue, then holds off new changes until the barrier is closed.
+   */
+  public Barrier barrier() {
+    if(!enabled) {
+      return NO_BARRIER;
+    }
+
+    barrierLock.writeLock().lock();
+    try {
+      flush();
+    } catch (RuntimeException ex) {
+      barrierLock.writeLock().unlock();
+      throw ex;
+    }
+    return () -> barrierLock.writeLock().unlock();
+  }
+
+  /**
+   * Writes what is queued so far and waits until it is committed.
+   */
+  public void flush() {
+    if(!enabled) {
+      return;
+    }
+
+    await(writer.submit(() -> writeQueued(null)));
+  }
+
+  private static void await(Future<?> written) {
+    try {
+      written.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing the queued TODOs", ex);
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Cannot write the queued TODOs", ex.getCause());
+    }
+  }
+
+  /**
+   * TODOs queued or being written.
+   */
+  public int queuedCount() {
+    return pending.size() + flushing.size();
+  }
+
+  public long flushCount() {
+    return flushes.get();
+  }
+
+  public double flushTimeNanos() {
+    return flushNanos.get();
+  }
+
+  /**
+   * Rows inserted or updated so far, fewer than the changes queued when they were coalesced.
+   */
+  public long writtenCount() {
+    return written.get();
+  }
+
+  /**
+   * Acknowledged changes that could not be written and were dropped.
+   */
+  public long failureCount() {
+    return failures.get();
+  }
+
+  /**
+   * Writes what is still queued and stops the writer.
+   */
+  @Override
+  public void close() {
+    if(!enabled) {
+      return;
+    }
+
+    flush();
+    writer.shutdown();
+  }
+
+  private Lock lock(long id) {
+    return locks[Math.floorMod(id, LOCK_STRIPES)];
+  }
+
+  /**
+   * Queues {@code todo} and appends it to the mutation log, in the same order for changes of
+   * the same TODO since the caller holds its lock, and before the next barrier since the
+   * caller holds the read side of the barrier lock.
+   */
+  private CompletableFuture<Long> enqueue(Todo todo, Todo current) {
+    synchronized(this) {
+      var previous = pending.get(todo.getId());
+      if(previous == null && pending.size() >= maxPending) {
+        throw new RejectedExecutionException("Write-behind queue is full");
+      }
+      // Coalesced changes keep the base of the first; an update of a TODO whose insert is
+      // still queued is written by that insert
+      pending.put(todo.getId(), new Queued(todo, previous != null ? previous.base() : current));
+      if(pending.size() == batchSize) {
+        writer.execute(() -> writeQueued(null));
+      }
+    }
+    return mutationLog == null ? null : mutationLog.append(LogRecord.todoPut(todo.getId(), todo.getMessage(),
+        todo.isDone(), todo.getCreatedAt(), todo.getUpdatedAt(), todo.getVersion(), ownerId(todo)));
+  }
+
+  private static void awaitLogged(CompletableFuture<Long> logged) {
+    if(logged != null) {
+      logged.join();
+    }
+  }
+
+  /**
+   * Takes the queue, or only the change queued for {@code id} when it is not null, and writes
+   * it in one transaction. When that fails, every TODO is written in its own transaction so
+   * one bad row only drops its own change. Only runs on the writer thread, so a TODO being
+   * written by an earlier call is committed by the time a later one starts.
+   */
+  private void writeQueued(Long id) {
+    Map<Long, Queued> batch;
+    synchronized(this) {
+      if(id == null) {
+        if(pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        flushing = batch;
+        pending = new ConcurrentHashMap<>();
+      } else {
+        var queued = pending.get(id);
+        if(queued == null) {
+          return;
+        }
+        batch = Map.of(id, queued);
+        flushing = batch;
+        pending.remove(id);
+      }
+    }
+
+    var start = System.nanoTime();
+    try {
+      List<Queued> committed;
+      try {
+        committed = transaction.execute(status -> write(batch.values()));
+      } catch (RuntimeException ex) {
+        logger.warn("Cannot write {} queued TODOs at once, writing them one at a time", batch.size(), ex);
+        committed = batch.values().stream().flatMap(x -> writeAlone(x).stream()).toList();
+      }
+      flushNanos.addAndGet(System.nanoTime() - start);
+      flushes.incrementAndGet();
+      written.addAndGet(committed.size());
+      committed.forEach(x -> listener.written(x.todo(), x.base()));
+    } catch (RuntimeException ex) {
+      logger.error("Cannot finish writing {} queued TODOs", batch.size(), ex);
+    } finally {
+      synchronized(this) {
+        flushing = Map.of();
+      }
+    }
+  }
+
+  private List<Queued> writeAlone(Queued queued) {
+    try {
+      return transaction.execute(status -> write(List.of(queued)));
+    } catch (RuntimeException ex) {
+      failures.incrementAndGet();
+      logger.error("Dropped the queued change of TODO {}", queued.todo().getId(), ex);
+      undoLogged(queued);
+      return List.of();
+    }
+  }
+
+  /**
+   * Appends the state the database kept to the mutation log, after the dropped change.
+   */
+  private void undoLogged(Queued queued) {
+    if(mutationLog == null) {
+      return;
+    }
+
+    var base = queued.base();
+    var record = base == null ? LogRecord.todoDeleted(queued.todo().getId()) : LogRecord.todoPut(base.getId(),
+        base.getMessage(), base.isDone(), base.getCreatedAt(), base.getUpdatedAt(), base.getVersion(), ownerId(base));
+    try {
+      mutationLog.append(record).join();
+    } catch (RuntimeException ex) {
+      logger.error("Cannot undo the dropped change of TODO {} in the mutation log, replay restores it",
+          queued.todo().getId(), ex);
+    }
+  }
+
+  /**
+   * @return the queued TODOs written, without the updates of TODOs deleted since they were
+   *     queued, which match no row: the delete wins
+   */
+  private List<Queued> write(Collection<Queued> queued) {
+    var inserts = queued.stream().filter(Queued::created).toList();
+    var updates = queued.stream().filter(x -> !x.created()).toList();
+    jdbcTemplate.batchUpdate(INSERT, inserts.stream().map(Queued::todo).toList(), batchSize, (ps, todo) -> {
+      ps.setLong(1, todo.getId());
+      ps.setString(2, todo.getMessage());
+      ps.setBoolean(3, todo.isDone());
+      ps.setTimestamp(4, todo.getCreatedAt());
+      ps.setTimestamp(5, todo.getUpdatedAt());
+      ps.setLong(6, todo.getVersion());
+      ps.setObject(7, ownerId(todo), Types.BIGINT);
+    });
+    var counts = jdbcTemplate.batchUpdate(UPDATE, updates.stream().map(Queued::todo).toList(), batchSize, (ps, todo) -> {
+      ps.setString(1, todo.getMessage());
+      ps.setBoolean(2, todo.isDone());
+      ps.setTimestamp(3, todo.getUpdatedAt());
+      ps.setLong(4, todo.getVersion());
+      ps.setLong(5, todo.getId());
+    });
+
+    List<Queued> rows = new ArrayList<>(inserts);
+    int i = 0;
+    for(var chunk : counts) {
+      for(var count : chunk) {
+        if(count != 0) {
+          rows.add(updates.get(i));
+        }
+        ++i;
+      }
+    }
+    return rows;
+  }
+
+  private static Todo copy(Todo todo) {
+    var copy = new Todo();
+    copy.setId(todo.getId());
+    copy.setMessage(todo.getMessage());
+    copy.setDone(todo.isDone());
+    copy.setCreatedAt(todo.getCreatedAt());
+    copy.setUpdatedAt(todo.getUpdatedAt());
+    copy.setVersion(todo.getVersion());
+    copy.setOwner(todo.getOwner());
+    return copy;
+  }
+
+  private static Long ownerId(Todo todo) {
+    return todo.getOwner() == null ? null : todo.getOwner().getId();
+  }
+}
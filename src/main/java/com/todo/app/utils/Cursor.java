@@ -0,0 +1,17 @@
+package com.todo.app.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.sql.Timestamp;
+
+/**
+ * Position of the last row of a page: its ID and, when sorting by a timestamp, the value
+ * of that timestamp.
+ */
+@Getter
+@AllArgsConstructor
+public class Cursor {
+  private final Long id;
+  private final Timestamp sortValue;
+}
@@ -0,0 +1,77 @@
+package com.todo.app.utils;
+
+import com.todo.app.exceptions.BadRequestException;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+public class CursorUtils {
+  private static final int ID_ONLY = Long.BYTES;
+  private static final int WITH_TIMESTAMP = Long.BYTES + Long.BYTES + Integer.BYTES;
+  private static final int SYNC_TOKEN = Long.BYTES;
+
+  public static String encode(long id) {
+    var bytes = ByteBuffer.allocate(ID_ONLY).putLong(id).array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  public static String encode(long id, Timestamp sortValue) {
+    var bytes = ByteBuffer.allocate(WITH_TIMESTAMP)
+        .putLong(id)
+        .putLong(sortValue.getTime())
+        .putInt(sortValue.getNanos())
+        .array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  public static Cursor decode(String cursor) throws BadRequestException {
+    if(StringUtils.isEmpty(cursor)) {
+      return null;
+    }
+
+    try {
+      var buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+      if(buffer.remaining() == ID_ONLY) {
+        return new Cursor(buffer.getLong(), null);
+      }
+
+      if(buffer.remaining() == WITH_TIMESTAMP) {
+        var id = buffer.getLong();
+        var sortValue = new Timestamp(buffer.getLong());
+        sortValue.setNanos(buffer.getInt());
+        return new Cursor(id, sortValue);
+      }
+    } catch (IllegalArgumentException ex) {
+      // Reported below
+    }
+    throw new BadRequestException("Invalid cursor: " + cursor);
+  }
+
+  /**
+   * Opaque token of a delta sync, the instant the changes were read at.
+   */
+  public static String encodeSyncToken(Timestamp readAt) {
+    var bytes = ByteBuffer.allocate(SYNC_TOKEN).putLong(readAt.getTime()).array();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * Instant of a token from {@link #encodeSyncToken(Timestamp)}, null when there is none.
+   */
+  public static Timestamp decodeSyncToken(String token) throws BadRequestException {
+    if(StringUtils.isEmpty(token)) {
+      return null;
+    }
+
+    try {
+      var buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+      if(buffer.remaining() == SYNC_TOKEN) {
+        return new Timestamp(buffer.getLong());
+      }
+    } catch (IllegalArgumentException ex) {
+      // Reported below
+    }
+    throw new BadRequestException("Invalid sync token: " + token);
+  }
+}
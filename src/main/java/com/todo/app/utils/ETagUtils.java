@@ -0,0 +1,70 @@
+package com.todo.app.utils;
+
+import com.todo.app.exceptions.PreconditionFailedException;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+public class ETagUtils {
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+
+  /**
+   * Strong ETag of a single TODO, its optimistic locking version.
+   */
+  public static String of(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Weak ETag of a list of TODOs, from its size and the last time one of them changed. Weak
+   * because the list is served in several encodings, and compressed, from the same state.
+   */
+  public static String of(long count, Timestamp lastUpdatedAt) {
+    if(lastUpdatedAt == null) {
+      return WEAK_PREFIX + "\"" + count + "\"";
+    }
+    return WEAK_PREFIX + "\"" + count + "-" + lastUpdatedAt.getTime() + "." + lastUpdatedAt.getNanos() % 1_000_000 + "\"";
+  }
+
+  /**
+   * Whether an {@code If-None-Match} header matches {@code etag}. Uses the weak comparison
+   * of RFC 7232, so a {@code W/} prefix is ignored on both sides.
+   */
+  public static boolean matches(String ifNoneMatch, String etag) {
+    if(StringUtils.isEmpty(ifNoneMatch)) {
+      return false;
+    }
+
+    var opaqueTag = weakless(etag);
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .map(ETagUtils::weakless)
+        .anyMatch(x -> x.equals(ANY) || x.equals(opaqueTag));
+  }
+
+  private static String weakless(String etag) {
+    return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
+  }
+
+  /**
+   * Version required by an {@code If-Match} header, null when there is no header or it
+   * accepts any version.
+   */
+  public static Long expectedVersion(String ifMatch) throws PreconditionFailedException {
+    if(StringUtils.isEmpty(ifMatch) || ifMatch.trim().equals(ANY)) {
+      return null;
+    }
+
+    var etag = ifMatch.trim();
+    if(etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+      try {
+        return Long.parseLong(etag.substring(1, etag.length() - 1));
+      } catch (NumberFormatException ex) {
+        // Reported below
+      }
+    }
+    // A weak or unknown tag can never match the strong ETag of a TODO
+    throw new PreconditionFailedException("If-Match does not match the current TODO: " + ifMatch);
+  }
+}
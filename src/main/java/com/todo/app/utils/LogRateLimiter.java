@@ -0,0 +1,69 @@
+package com.todo.app.utils;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets the first {@code permitsPerWindow} log lines through per {@code window}, then a random
+ * sample of one in {@code sampleRate} of the others, and counts the ones it drops so the next
+ * line that is let through can report how many were skipped.
+ * <p>
+ * Lock-free: the window is reset with a compare-and-set, a denied line only reads the permit
+ * count and adds to a {@link LongAdder}, and the sample is drawn from a thread-local random.
+ * Lines racing with the reset of a window may get a permit of either window.
+ */
+public class LogRateLimiter {
+  public static final long DENIED = -1;
+
+  private final int permitsPerWindow;
+  private final long windowNanos;
+  private final int sampleRate;
+  private final LongSupplier nanoClock;
+
+  private final AtomicLong windowStart;
+  private final AtomicInteger permitsUsed = new AtomicInteger();
+  private final LongAdder suppressed = new LongAdder();
+
+  public LogRateLimiter(int permitsPerWindow, Duration window, int sampleRate) {
+    this(permitsPerWindow, window, sampleRate, System::nanoTime);
+  }
+
+  /**
+   * @param sampleRate one in this many lines over the limit is let through, 0 for none
+   */
+  public LogRateLimiter(int permitsPerWindow, Duration window, int sampleRate, LongSupplier nanoClock) {
+    this.permitsPerWindow = permitsPerWindow;
+    this.windowNanos = window.toNanos();
+    this.sampleRate = sampleRate;
+    this.nanoClock = nanoClock;
+    this.windowStart = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  /**
+   * Returns {@link #DENIED} when the line must be dropped, otherwise the number of lines
+   * dropped since the last one that was let through.
+   */
+  public long tryAcquire() {
+    var now = nanoClock.getAsLong();
+    var start = windowStart.get();
+    if(now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+      permitsUsed.set(0);
+    }
+
+    if(permitsUsed.get() >= permitsPerWindow || permitsUsed.getAndIncrement() >= permitsPerWindow) {
+      if(!sampled()) {
+        suppressed.increment();
+        return DENIED;
+      }
+    }
+    return suppressed.sumThenReset();
+  }
+
+  private boolean sampled() {
+    return sampleRate > 0 && ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+  }
+}
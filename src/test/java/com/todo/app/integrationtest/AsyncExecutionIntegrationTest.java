@@ -0,0 +1,99 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.controller.OffloadingHandlerAdapter;
+import com.todo.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.concurrent.CountDownLatch;
+
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.web.execution=async",
+    "app.web.async.threads=1",
+    "app.web.async.queue-capacity=1"
+})
+@AutoConfigureMockMvc
+public class AsyncExecutionIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private RequestMappingHandlerAdapter handlerAdapter;
+
+  @Test
+  public void test_createAndFindTodo_ShouldAnswerFromAsyncDispatch() throws Exception {
+    var user = userService.create(createValidUser("async"));
+
+    var created = mockMvc.perform(post("/api/todo")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"message\":\"async\",\"owner\":{\"id\":" + user.getId() + "}}"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    var location = mockMvc.perform(asyncDispatch(created))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.message").value("async"))
+        .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+    var found = mockMvc.perform(get(location)).andExpect(request().asyncStarted()).andReturn();
+    mockMvc.perform(asyncDispatch(found))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andExpect(jsonPath("$.message").value("async"));
+  }
+
+  @Test
+  public void test_findMissingUser_ShouldMapExceptionFromExecutor() throws Exception {
+    var result = mockMvc.perform(get("/user/" + Long.MAX_VALUE)).andExpect(request().asyncStarted()).andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void test_executorFull_ShouldRejectWith503() throws Exception {
+    var executor = ((OffloadingHandlerAdapter) handlerAdapter).getExecutor();
+    var release = new CountDownLatch(1);
+    var started = new CountDownLatch(1);
+    // Occupies the only thread, then the only queue slot
+    executor.execute(() -> {
+      started.countDown();
+      awaitQuietly(release);
+    });
+    started.await();
+    executor.execute(() -> { });
+    try {
+      mockMvc.perform(get("/user/1"))
+          .andExpect(request().asyncNotStarted())
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
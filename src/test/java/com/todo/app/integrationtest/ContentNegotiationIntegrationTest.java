@@ -0,0 +1,121 @@
+package com.todo.app.integrationtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.User;
+import com.todo.app.service.TodoService;
+import com.todo.app.service.UserService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+
+import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ContentNegotiationIntegrationTest {
+
+  private static final int TODOS = 50;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserService userService;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private User user;
+
+  @BeforeAll
+  public void createTodos() throws Exception {
+    user = userService.create(createValidUser("negotiation"));
+    var todos = new ArrayList<Todo>();
+    for(int i = 0; i < TODOS; ++i) {
+      var todo = createValidTodo("Negotiated TODO " + i);
+      todo.setOwner(user);
+      todos.add(todo);
+    }
+    todoService.createAll(todos);
+  }
+
+  @Test
+  public void test_listWithoutAccept_ShouldStayJsonWithIsoTimestamps() throws Exception {
+    var response = get("/api/todos/" + user.getId(), null, null);
+
+    assertEquals("application/json", response.headers().firstValue("Content-Type").orElseThrow());
+    var page = new ObjectMapper().readTree(response.body());
+    assertPage(page);
+    assertThat(page.get("items").get(0).get("createdAt").textValue()).matches("\\d{4}-\\d\\d-\\d\\dT.*");
+  }
+
+  @Test
+  public void test_listAcceptCbor_ShouldWriteCborWithEpochTimestamps() throws Exception {
+    var json = get("/api/todos/" + user.getId(), null, null).body();
+    var response = get("/api/todos/" + user.getId(), "application/cbor", null);
+
+    assertEquals("application/cbor", response.headers().firstValue("Content-Type").orElseThrow());
+    var page = new ObjectMapper(new CBORFactory()).readTree(response.body());
+    assertPage(page);
+    assertThat(page.get("items").get(0).get("createdAt").isNumber()).isTrue();
+    assertThat(response.body().length).isLessThan(json.length);
+  }
+
+  @Test
+  public void test_allTodosAcceptSmile_ShouldWriteSmile() throws Exception {
+    var response = get("/api/todos?owner=" + user.getId(), "application/x-jackson-smile", null);
+
+    assertEquals("application/x-jackson-smile", response.headers().firstValue("Content-Type").orElseThrow());
+    assertPage(new ObjectMapper(new SmileFactory()).readTree(response.body()));
+  }
+
+  @Test
+  public void test_largeListAcceptGzip_ShouldBeCompressed() throws Exception {
+    var response = get("/api/todos/" + user.getId(), null, "gzip");
+
+    assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+    try(var body = new GZIPInputStream(new java.io.ByteArrayInputStream(response.body()))) {
+      assertPage(new ObjectMapper().readTree(body));
+    }
+  }
+
+  private void assertPage(JsonNode page) {
+    var items = page.get("items");
+    assertEquals(TODOS, items.size());
+    assertEquals("Negotiated TODO 0", items.get(0).get("message").textValue());
+    assertEquals(user.getId().longValue(), items.get(0).get("ownerId").longValue());
+  }
+
+  private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding)
+      throws IOException, InterruptedException {
+    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+    if(accept != null) {
+      request.header("Accept", accept);
+    }
+    if(acceptEncoding != null) {
+      request.header("Accept-Encoding", acceptEncoding);
+    }
+    var response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    assertEquals(200, response.statusCode());
+    return response;
+  }
+}
@@ -0,0 +1,169 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.TodoAppApplication;
+import com.todo.app.entity.Todo;
+import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.service.LogStorageService;
+import com.todo.app.service.TodoService;
+import com.todo.app.service.UserService;
+import com.todo.app.storage.MutationLog;
+import com.todo.app.storage.TodoWriteBehind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Restarts the application on the same log directory, each time with a new empty in-memory
+ * database, and checks the data survived.
+ */
+public class LogStorageIntegrationTest {
+
+  @TempDir
+  private Path directory;
+
+  private ConfigurableApplicationContext start(int run, String... args) {
+    var defaults = Stream.of("--spring.datasource.url=jdbc:h2:mem:log-storage-" + run,
+        "--app.storage.engine=log",
+        "--app.storage.log.directory=" + directory,
+        "--app.storage.log.fsync=false",
+        "--spring.devtools.restart.enabled=false");
+    return new SpringApplicationBuilder(TodoAppApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(Stream.concat(defaults, Stream.of(args)).toArray(String[]::new));
+  }
+
+  @Test
+  public void test_changeData_restart_snapshot_restart_assertStateReplayed() throws Exception {
+    long ownerId;
+    long keptId;
+    long deletedId;
+    try(var context = start(1)) {
+      var userService = context.getBean(UserService.class);
+      var todoService = context.getBean(TodoService.class);
+
+      var owner = userService.create(createValidUser("owner"));
+      ownerId = owner.getId();
+      var kept = new Todo();
+      kept.setMessage("kept");
+      kept.setOwner(owner);
+      keptId = todoService.create(kept).getId();
+      var deleted = new Todo();
+      deleted.setMessage("deleted");
+      deletedId = todoService.create(deleted).getId();
+
+      todoService.updateMessage(keptId, "kept and renamed");
+      todoService.updateStatus(keptId, true);
+      todoService.deleteById(deletedId);
+    }
+
+    try(var context = start(2)) {
+      var todoService = context.getBean(TodoService.class);
+      var kept = todoService.findById(keptId);
+      assertEquals("kept and renamed", kept.getMessage());
+      assert(kept.isDone());
+      assertEquals(2L, kept.getVersion());
+      assertEquals(ownerId, context.getBean(UserService.class).findById(ownerId).getId());
+      assertThrows(ResourceNotFoundException.class, () -> todoService.findById(deletedId));
+
+      // IDs generated after the replay do not collide with replayed ones
+      var created = new Todo();
+      created.setMessage("after restart");
+      assertThat(todoService.create(created).getId()).isGreaterThan(deletedId);
+
+      context.getBean(LogStorageService.class).snapshot();
+    }
+
+    try(var context = start(3)) {
+      var todoService = context.getBean(TodoService.class);
+      assertEquals("kept and renamed", todoService.findById(keptId).getMessage());
+      assertEquals(ownerId, todoService.findById(keptId).getOwner().getId());
+      assertEquals(2, todoService.findAll().size());
+    }
+  }
+
+  @Test
+  public void test_writeBehind_changeData_snapshot_restart_assertStateReplayed() throws Exception {
+    var writeBehind = new String[] {"--app.storage.write-behind.enabled=true", "--app.storage.write-behind.flush-interval=PT1H"};
+    long keptId;
+    long renamedId;
+    try(var context = start(11, writeBehind)) {
+      var todoService = context.getBean(TodoService.class);
+
+      var kept = new Todo();
+      kept.setMessage("kept");
+      keptId = todoService.create(kept).getId();
+      todoService.updateStatus(keptId, true);
+      // The snapshot writes the queued changes before rolling the log
+      context.getBean(LogStorageService.class).snapshot();
+
+      var renamed = new Todo();
+      renamed.setMessage("renamed");
+      renamedId = todoService.create(renamed).getId();
+      todoService.updateMessage(renamedId, "renamed once queued");
+    }
+
+    try(var context = start(12)) {
+      var todoService = context.getBean(TodoService.class);
+      var kept = todoService.findById(keptId);
+      assert(kept.isDone());
+      assertEquals(1L, kept.getVersion());
+      var renamed = todoService.findById(renamedId);
+      assertEquals("renamed once queued", renamed.getMessage());
+      assertEquals(1L, renamed.getVersion());
+      assertEquals(2, todoService.findAll().size());
+    }
+  }
+
+  @Test
+  public void test_writeBehind_writeFails_restart_assertChangeNotReplayed() throws Exception {
+    var writeBehind = new String[] {"--app.storage.write-behind.enabled=true", "--app.storage.write-behind.flush-interval=PT1H"};
+    long droppedId;
+    try(var context = start(31, writeBehind)) {
+      var todoService = context.getBean(TodoService.class);
+      var owner = context.getBean(UserService.class).create(createValidUser("deleted before written"));
+      var dropped = new Todo();
+      dropped.setMessage("dropped");
+      dropped.setOwner(owner);
+      droppedId = todoService.create(dropped).getId();
+
+      // Not logged, so the owner is replayed and only the undo keeps the TODO out
+      context.getBean(JdbcTemplate.class).update("delete from u where id = ?", owner.getId());
+      context.getBean(TodoWriteBehind.class).flush();
+    }
+
+    try(var context = start(32)) {
+      var todoService = context.getBean(TodoService.class);
+      assertThrows(ResourceNotFoundException.class, () -> todoService.findById(droppedId));
+    }
+  }
+
+  @Test
+  public void test_appendFails_ShouldFailTheRequest() throws Exception {
+    try(var context = start(21)) {
+      var todoService = context.getBean(TodoService.class);
+      var deleted = new Todo();
+      deleted.setMessage("deleted, not logged");
+      var deletedId = todoService.create(deleted).getId();
+      var updated = new Todo();
+      updated.setMessage("updated, not logged");
+      var updatedId = todoService.create(updated).getId();
+
+      context.getBean(MutationLog.class).close();
+
+      // In a transaction and outside of one
+      assertThrows(IllegalStateException.class, () -> todoService.deleteById(deletedId));
+      assertThrows(IllegalStateException.class, () -> todoService.updateStatus(updatedId, true));
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsEndpointIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserService userService;
+
+  @Test
+  public void test_callApi_scrapeMetrics_assertEndpointServiceRepositoryHibernateAndPoolMeters() throws Exception {
+    var user = userService.create(createValidUser("metrics"));
+    mockMvc.perform(get("/api/todos/" + user.getId())).andExpect(status().isOk());
+    mockMvc.perform(get("/user/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+    var body = mockMvc.perform(get("/metrics"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    assertThat(body)
+        .containsPattern("http_server_requests_seconds_count\\{.*status=\"200\".*uri=\"/api/todos/\\{userId}\"")
+        .containsPattern("http_server_requests_seconds_count\\{.*status=\"404\".*uri=\"/user/\\{userId}\"")
+        .containsPattern("http_client_errors_total\\{.*status=\"404\"")
+        .containsPattern("todo_service_seconds_count\\{.*method=\"findPage\"")
+        .containsPattern("user_service_seconds_count\\{.*method=\"create\"")
+        .containsPattern("spring_data_repository_invocations_seconds_count\\{.*repository=\"UserRepository\"")
+        .contains("hibernate_statements_total")
+        .contains("hibernate_entities_loads_total")
+        .contains("hibernate_cache_query_requests_total")
+        .containsPattern("cache_gets_total\\{cache=\"user\"")
+        .contains("hibernate_flushes_total")
+        .contains("hikaricp_connections_active")
+        .contains("jvm_memory_used_bytes");
+  }
+}
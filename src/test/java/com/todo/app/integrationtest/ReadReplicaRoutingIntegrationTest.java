@@ -0,0 +1,103 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.service.TodoOwnerIndexService;
+import com.todo.app.service.TodoService;
+import com.todo.app.service.UserService;
+import com.todo.app.utils.ETagUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against two separate in-memory H2 databases. There is no replication between them,
+ * so the replica gets a copy of the schema and every row is written to each database with
+ * different contents, which tells where a read went.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary",
+    "app.datasource.replica.jdbc-url=jdbc:h2:mem:routing-replica",
+    "app.datasource.replica.username=todoApp",
+    "app.datasource.replica.password=password",
+    "app.datasource.replica.maximum-pool-size=2",
+    "app.datasource.read-your-writes-window=PT1M"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ReadReplicaRoutingIntegrationTest {
+
+  @Autowired
+  @Qualifier("primaryDataSource")
+  private DataSource primaryDataSource;
+
+  @Autowired
+  @Qualifier("replicaDataSource")
+  private DataSource replicaDataSource;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private TodoOwnerIndexService ownerIndexService;
+
+  private JdbcTemplate primary;
+  private JdbcTemplate replica;
+
+  @BeforeAll
+  public void copySchema() {
+    primary = new JdbcTemplate(primaryDataSource);
+    replica = new JdbcTemplate(replicaDataSource);
+    primary.queryForList("script nodata", String.class).forEach(replica::execute);
+  }
+
+  @Test
+  public void test_userFindById_ShouldReadReplicaUntilWritten() throws Exception {
+    insertUser(5000, "primary", "replica");
+
+    assertEquals("replica", userService.findById(5000L).getName());
+
+    userService.updateName(5000L, "renamed");
+
+    assertEquals("renamed", userService.findById(5000L).getName());
+    assertEquals("replica", replica.queryForObject("select name from u where id = 5000", String.class));
+  }
+
+  @Test
+  public void test_todoReads_ShouldReadReplica() throws Exception {
+    insertUser(6000, "owner", "owner");
+    for(var jdbc : new JdbcTemplate[] {primary, replica}) {
+      var message = jdbc == primary ? "primary" : "replica";
+      jdbc.update("insert into todo (id, message, done, version, owner_id) values (60000, ?, false, 0, 6000)", message);
+    }
+    // Rebuilds always read the primary
+    ownerIndexService.rebuild();
+
+    assertEquals("replica", todoService.findById(60000L).getMessage());
+    assertEquals("replica", todoService.findPage(TodoFilter.byOwner(6000L), null, 10).getItems().get(0).getMessage());
+    assertEquals("replica", todoService.findAllByUserId(6000L).get(0).getMessage());
+    assertEquals(1, todoService.findAll().size());
+  }
+
+  @Test
+  public void test_listETag_ShouldReadReplica() {
+    insertUser(6100, "owner", "owner");
+    replica.update("insert into todo (id, message, done, version, owner_id) values (61000, 'replica', false, 0, 6100)");
+
+    assertEquals(ETagUtils.of(1, null), todoService.findListETag(6100L));
+  }
+
+  private void insertUser(long id, String primaryName, String replicaName) {
+    primary.update("insert into u (id, name) values (?, ?)", id, primaryName);
+    replica.update("insert into u (id, name) values (?, ?)", id, replicaName);
+  }
+}
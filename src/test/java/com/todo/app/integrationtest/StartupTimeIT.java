@@ -0,0 +1,99 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.TodoAppApplication;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Starts the application with the {@code prod} profile in a new JVM and measures the time
+ * until its first request succeeds. Fails when that takes longer than the
+ * {@code startup.max-time} system property, an ISO-8601 duration, so startup regressions
+ * fail the build. The output of the application is written to
+ * {@code target/startup-time.log}.
+ * <p>
+ * Spawning a JVM and timing it is too slow and too sensitive to the load of the machine for
+ * every {@code mvn test}: it only runs with the {@code startup-time} profile, as a failsafe
+ * integration test.
+ */
+public class StartupTimeIT {
+
+  private static final Logger logger = LoggerFactory.getLogger(StartupTimeIT.class);
+
+  private static final Duration maxTime = Duration.parse(System.getProperty("startup.max-time", "PT30S"));
+  private static final Duration pollInterval = Duration.ofMillis(20);
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(1))
+      .build();
+
+  @Test
+  public void test_prodProfile_firstRequest_ShouldSucceedWithinMaxTime() throws Exception {
+    var port = freePort();
+    var command = List.of(
+        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"),
+        TodoAppApplication.class.getName(),
+        "--spring.profiles.active=prod",
+        "--server.port=" + port);
+    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/user"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"startup\"}"))
+        .timeout(Duration.ofSeconds(5))
+        .build();
+
+    var start = System.nanoTime();
+    var process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(Path.of("target", "startup-time.log").toFile())
+        .start();
+    try {
+      var deadline = start + maxTime.toNanos();
+      while(System.nanoTime() < deadline) {
+        if(!process.isAlive()) {
+          fail("Application exited with " + process.exitValue() + " before serving a request");
+        }
+        if(succeeds(request)) {
+          var elapsed = Duration.ofNanos(System.nanoTime() - start);
+          logger.info("First request served {} ms after start", elapsed.toMillis());
+          assertTrue(elapsed.compareTo(maxTime) <= 0,
+              "First request served " + elapsed.toMillis() + " ms after start, over " + maxTime.toMillis() + " ms");
+          return;
+        }
+        Thread.sleep(pollInterval.toMillis());
+      }
+      fail("No request succeeded within " + maxTime.toMillis() + " ms of the start");
+    } finally {
+      process.destroyForcibly().waitFor();
+    }
+  }
+
+  private boolean succeeds(HttpRequest request) throws InterruptedException {
+    try {
+      var status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      return status >= 200 && status < 300;
+    } catch (IOException ex) {
+      // Not listening yet
+      return false;
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try(var socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.service.TodoService;
+import com.todo.app.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs on its own database, the TODOs created here would otherwise take IDs out of order in
+ * the context shared with {@link ContentNegotiationIntegrationTest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.url=jdbc:h2:mem:events")
+public class TodoEventsIntegrationTest {
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserService userService;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  @Test
+  public void test_subscribe_changeTodos_ShouldStreamEachChange() throws Exception {
+    var user = userService.create(createValidUser("events"));
+    var other = userService.create(createValidUser("other"));
+    var response = client.send(request(user.getId()).build(), HttpResponse.BodyHandlers.ofInputStream());
+    assertEquals(200, response.statusCode());
+    assertThat(response.headers().firstValue("Content-Type").orElseThrow()).startsWith("text/event-stream");
+
+    try(var reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      var otherTodo = createValidTodo("Not streamed");
+      otherTodo.setOwner(other);
+      todoService.create(otherTodo);
+      var todo = createValidTodo("Streamed");
+      todo.setOwner(user);
+      var id = todoService.create(todo).getId();
+      todoService.updateStatus(id, true);
+      todoService.deleteById(id);
+
+      var events = readEvents(reader, 3);
+      assertThat(events).containsExactly(
+          "created {\"type\":\"CREATED\",\"todoId\":" + id + "}",
+          "updated {\"type\":\"UPDATED\",\"todoId\":" + id + "}",
+          "deleted {\"type\":\"DELETED\",\"todoId\":" + id + "}");
+    }
+  }
+
+  @Test
+  public void test_reconnect_ShouldStartWithResync() throws Exception {
+    var request = request(1L).header("Last-Event-ID", "42").build();
+    var response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+    try(var reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      assertThat(readEvents(reader, 1)).containsExactly("resync ");
+    }
+  }
+
+  private HttpRequest.Builder request(Long userId) {
+    return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/todos/" + userId + "/events"))
+        .header("Accept", "text/event-stream")
+        .timeout(Duration.ofSeconds(10));
+  }
+
+  /**
+   * Reads {@code count} events as {@code name data}, skipping comments and IDs.
+   */
+  private static List<String> readEvents(BufferedReader reader, int count) throws Exception {
+    return CompletableFuture.supplyAsync(() -> {
+      List<String> events = new ArrayList<>();
+      String name = null;
+      var data = new StringBuilder();
+      try {
+        while(events.size() < count) {
+          var line = reader.readLine();
+          if(line == null) {
+            break;
+          }
+          if(line.startsWith("event:")) {
+            name = line.substring("event:".length());
+          } else if(line.startsWith("data:")) {
+            data.append(line.substring("data:".length()));
+          } else if(line.isEmpty() && name != null) {
+            events.add(name + " " + data);
+            name = null;
+            data.setLength(0);
+          }
+        }
+      } catch (Exception ex) {
+        throw new IllegalStateException(ex);
+      }
+      return events;
+    }).get(20, TimeUnit.SECONDS);
+  }
+}
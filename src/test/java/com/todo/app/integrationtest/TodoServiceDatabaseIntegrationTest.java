@@ -1,15 +1,24 @@
 package com.todo.app.integrationtest;
 
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.exceptions.PreconditionFailedException;
 import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.service.TodoSearchService;
 import com.todo.app.service.TodoService;
+import com.todo.app.service.TodoStatsService;
+import com.todo.app.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
 
 import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static com.todo.app.utils.UserUtils.createValidUser;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -22,6 +31,15 @@ public class TodoServiceDatabaseIntegrationTest {
   @Autowired
   private TodoService todoService;
 
+  @Autowired
+  private TodoSearchService todoSearchService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private TodoStatsService todoStatsService;
+
 
   @Test
   public void test_createTodo_getTodoCreated_deleteTodo_getExpection() throws Exception {
@@ -74,4 +92,193 @@ public class TodoServiceDatabaseIntegrationTest {
     assertThat(getTodo.getCreatedAt()).isEqualTo(createdTime);
     assertThat(getTodo.getUpdatedAt()).isNotEqualTo(updateTime);
   }
+
+  @Test
+  public void test_createTodo_updateWithVersions_assertStaleVersionRejected() throws Exception {
+    var owner = userService.create(createValidUser("VersionTestUser"));
+    var todo = createValidTodo("VersionTestMessage");
+    todo.setOwner(owner);
+    var createdTodo = todoService.create(todo);
+    var listETag = todoService.findListETag(owner.getId());
+    assertEquals(0L, todoService.findVersion(createdTodo.getId()));
+
+    todoService.updateStatus(createdTodo.getId(), true, 0L);
+    assertEquals(1L, todoService.findVersion(createdTodo.getId()));
+    assertThat(todoService.findListETag(owner.getId())).isNotEqualTo(listETag);
+    assertThrows(PreconditionFailedException.class,
+        () -> todoService.updateMessage(createdTodo.getId(), "StaleMessage", 0L));
+
+    var update = createValidTodo(createdTodo.getId(), "VersionTestUpdate");
+    update.setOwner(owner);
+    assertThrows(PreconditionFailedException.class, () -> todoService.updateTodo(update, 0L));
+    var updatedTodo = todoService.updateTodo(update, 1L);
+    assertEquals(2L, updatedTodo.getVersion());
+    assertEquals("VersionTestUpdate", todoService.findById(createdTodo.getId()).getMessage());
+    assertEquals(createdTodo.getCreatedAt(), todoService.findById(createdTodo.getId()).getCreatedAt());
+  }
+
+  @Test
+  public void test_createTodos_walkPages_assertEachTodoSeenOnce() throws Exception {
+    var createdIds = new HashSet<Long>();
+    for(int i = 0; i<7; ++i) {
+      createdIds.add(todoService.create(createValidTodo("PageTestMessage")).getId());
+    }
+
+    var seenIds = new ArrayList<Long>();
+    String cursor = null;
+    do {
+      var page = todoService.findPage(new TodoFilter(), cursor, 3);
+      assertThat(page.getItems().size()).isLessThanOrEqualTo(3);
+      page.getItems().forEach(x -> seenIds.add(x.getId()));
+      cursor = page.getNext();
+    } while(cursor != null);
+
+    assertEquals(seenIds.size(), new HashSet<>(seenIds).size());
+    assertThat(seenIds.containsAll(createdIds)).isTrue();
+  }
+
+  @Test
+  public void test_createOwnedTodos_findAllByUserId_assertSummariesCarryOwnerId() throws Exception {
+    var owner = userService.create(createValidUser("SummaryTestUser"));
+    for(int i = 0; i<3; ++i) {
+      var todo = createValidTodo("SummaryTestMessage");
+      todo.setOwner(owner);
+      todoService.create(todo);
+    }
+
+    var todos = todoService.findAllByUserId(owner.getId());
+
+    assertEquals(3, todos.size());
+    assertThat(todos.stream().allMatch(x -> owner.getId().equals(x.getOwnerId()))).isTrue();
+    assertThat(todos.stream().allMatch(x -> "SummaryTestMessage".equals(x.getMessage()))).isTrue();
+  }
+
+  @Test
+  public void test_createOwnedTodos_deleteAllDone_assertOnlyNotDoneRemain() throws Exception {
+    var owner = userService.create(createValidUser("BulkDeleteTestUser"));
+    var notDoneIds = new HashSet<Long>();
+    for(int i = 0; i<6; ++i) {
+      var todo = createValidTodo("BulkDeleteTestMessage");
+      todo.setOwner(owner);
+      var createdTodo = todoService.create(todo);
+      if(i % 2 == 0) {
+        todoService.updateStatus(createdTodo.getId(), true);
+      } else {
+        notDoneIds.add(createdTodo.getId());
+      }
+    }
+
+    assertEquals(3, todoService.deleteAllByUserId(owner.getId(), true));
+
+    var remainingIds = todoService.findAllByUserId(owner.getId()).stream().map(TodoSummary::getId).toList();
+    assertEquals(notDoneIds, new HashSet<>(remainingIds));
+    assertEquals(3, todoService.deleteAllByUserId(owner.getId(), null));
+    assertThat(todoService.findAllByUserId(owner.getId()).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void test_createOwnedTodos_updateAndDelete_assertStatsFollowChanges() throws Exception {
+    var owner = userService.create(createValidUser("StatsTestUser"));
+    var ids = new ArrayList<Long>();
+    for(int i = 0; i<4; ++i) {
+      var todo = createValidTodo("StatsTestMessage");
+      todo.setOwner(owner);
+      ids.add(todoService.create(todo).getId());
+    }
+
+    todoService.updateStatus(ids.get(0), true);
+    todoService.updateStatus(ids.get(1), true);
+    todoService.deleteById(ids.get(1));
+    var moved = createValidTodo(ids.get(2), "StatsTestMessage");
+    todoService.updateTodo(moved);
+
+    var stats = todoStatsService.findByUserId(owner.getId());
+    assertEquals(2, stats.getTotal());
+    assertEquals(1, stats.getDone());
+    assertEquals(1, stats.getPending());
+
+    todoStatsService.reconcile();
+    var reconciled = todoStatsService.findByUserId(owner.getId());
+    assertEquals(2, reconciled.getTotal());
+    assertEquals(1, reconciled.getDone());
+  }
+
+  @Test
+  public void test_createTodos_export_assertAllExportedInIdOrder() throws Exception {
+    var createdIds = new HashSet<Long>();
+    for(int i = 0; i<5; ++i) {
+      createdIds.add(todoService.create(createValidTodo("ExportTestMessage")).getId());
+    }
+
+    var exportedIds = new ArrayList<Long>();
+    todoService.export(null, todo -> exportedIds.add(todo.getId()));
+
+    assertThat(exportedIds.containsAll(createdIds)).isTrue();
+    assertThat(exportedIds.stream().sorted().toList()).isEqualTo(exportedIds);
+  }
+
+  @Test
+  public void test_createAll_assertCreatedTodosCanBeFound() throws Exception {
+    var todos = new ArrayList<Todo>();
+    for(int i = 0; i<120; ++i) {
+      todos.add(createValidTodo("BatchTestMessage" + i));
+    }
+    todos.add(createValidTodo(""));
+
+    var result = todoService.createAll(todos);
+
+    assertEquals(120, result.getCreatedIds().size());
+    assertEquals(400, result.getResults().get(120).getStatus());
+    assertEquals("BatchTestMessage42", todoService.findById(result.getCreatedIds().get(42)).getMessage());
+    assertEquals(120, new HashSet<>(result.getCreatedIds()).size());
+  }
+
+  @Test
+  public void test_createTodos_walkDoneByUpdatedAtDesc_assertEachDoneTodoSeenOnce() throws Exception {
+    var doneIds = new HashSet<Long>();
+    for(int i = 0; i<6; ++i) {
+      var todo = todoService.create(createValidTodo("FilterTestMessage"));
+      if(i % 2 == 0) {
+        todoService.updateStatus(todo.getId(), true);
+        doneIds.add(todo.getId());
+      }
+    }
+
+    var filter = new TodoFilter();
+    filter.setDone(true);
+    filter.setSort(TodoFilter.SORT_UPDATED_AT);
+    filter.setDirection(TodoFilter.DESCENDING);
+
+    var seen = new ArrayList<TodoSummary>();
+    String cursor = null;
+    do {
+      var page = todoService.findPage(filter, cursor, 2);
+      seen.addAll(page.getItems());
+      cursor = page.getNext();
+    } while(cursor != null);
+
+    var seenIds = seen.stream().map(TodoSummary::getId).toList();
+    assertEquals(seenIds.size(), new HashSet<>(seenIds).size());
+    assertThat(seenIds.containsAll(doneIds)).isTrue();
+    assertThat(seen.stream().allMatch(TodoSummary::isDone)).isTrue();
+    for(int i = 1; i < seen.size(); ++i) {
+      assertThat(seen.get(i - 1).getUpdatedAt().compareTo(seen.get(i).getUpdatedAt())).isGreaterThanOrEqualTo(0);
+    }
+  }
+
+  @Test
+  public void test_createTodo_search_updateMessage_deleteTodo() throws Exception {
+    var todo = todoService.create(createValidTodo("Renew zanzibar passport"));
+
+    var found = todoSearchService.search("zanz", null, 10);
+    assertEquals(1, found.size());
+    assertEquals(todo.getId(), found.get(0).getId());
+
+    todoService.updateMessage(todo.getId(), "Renew quixotic license");
+    assertThat(todoSearchService.search("zanzibar", null, 10).isEmpty()).isTrue();
+    assertEquals(1, todoSearchService.search("quixotic", null, 10).size());
+
+    todoService.deleteById(todo.getId());
+    assertThat(todoSearchService.search("quixotic", null, 10).isEmpty()).isTrue();
+  }
 }
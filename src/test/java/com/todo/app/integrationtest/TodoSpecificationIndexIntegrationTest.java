@@ -0,0 +1,172 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.repository.TodoRepository;
+import com.todo.app.specification.TodoSpecification;
+import com.todo.app.utils.Cursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every supported filter combination through {@link TodoSpecification}, captures the
+ * SQL Hibernate sends with the values it binds and checks with EXPLAIN that H2 answers it
+ * with an index seek.
+ */
+@SpringBootTest
+public class TodoSpecificationIndexIntegrationTest {
+
+  private record Captured(String sql, Map<Integer, Object> parameters) {
+  }
+
+  private static final List<Captured> statements = new CopyOnWriteArrayList<>();
+
+  /**
+   * Wraps the data source so every prepared statement records its SQL and bound values.
+   */
+  @TestConfiguration
+  public static class CapturingConfig {
+    @Bean
+    public static BeanPostProcessor capturingDataSource() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String name) {
+          return bean instanceof DataSource dataSource && name.equals("dataSource") ? new CapturingDataSource(dataSource) : bean;
+        }
+      };
+    }
+  }
+
+  private static class CapturingDataSource extends DelegatingDataSource {
+    private CapturingDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      var connection = super.getConnection();
+      return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+          (proxy, method, args) -> {
+            var result = invoke(connection, method, args);
+            if(method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+              var captured = new Captured(sql, new TreeMap<>());
+              statements.add(captured);
+              return capture((PreparedStatement) result, captured);
+            }
+            return result;
+          });
+    }
+
+    private static PreparedStatement capture(PreparedStatement statement, Captured captured) {
+      return (PreparedStatement) Proxy.newProxyInstance(CapturingDataSource.class.getClassLoader(),
+          new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+            if(method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+              captured.parameters().put(index, method.getName().equals("setNull") ? null : args[1]);
+            }
+            return invoke(statement, method, args);
+          });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException ex) {
+        throw ex.getCause();
+      }
+    }
+  }
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TodoRepository todoRepository;
+
+  private static TodoFilter filter(Long owner, Boolean done, boolean createdRange, boolean updatedRange, String sort) {
+    var filter = new TodoFilter();
+    filter.setOwner(owner);
+    filter.setDone(done);
+    if(createdRange) {
+      filter.setCreatedAfter(Instant.parse("2022-01-01T00:00:00Z"));
+      filter.setCreatedBefore(Instant.parse("2023-01-01T00:00:00Z"));
+    }
+    if(updatedRange) {
+      filter.setUpdatedAfter(Instant.parse("2022-01-01T00:00:00Z"));
+    }
+    filter.setSort(sort);
+    return filter;
+  }
+
+  static Stream<Arguments> filterCombinations() {
+    return Stream.of(
+        Arguments.of(filter(1L, null, false, false, TodoFilter.SORT_ID), "OWNER_ID ="),
+        Arguments.of(filter(1L, true, false, false, TodoFilter.SORT_ID), "IDX_TODO_OWNER_DONE_UPDATED"),
+        Arguments.of(filter(1L, true, false, true, TodoFilter.SORT_UPDATED_AT), "IDX_TODO_OWNER_DONE_UPDATED"),
+        Arguments.of(filter(1L, false, true, false, TodoFilter.SORT_CREATED_AT), "IDX_TODO_OWNER_DONE_CREATED"),
+        Arguments.of(filter(1L, null, false, true, TodoFilter.SORT_UPDATED_AT), "IDX_TODO_OWNER_UPDATED"),
+        Arguments.of(filter(1L, null, true, false, TodoFilter.SORT_CREATED_AT), "IDX_TODO_OWNER_CREATED"),
+        Arguments.of(filter(null, true, false, true, TodoFilter.SORT_UPDATED_AT), "IDX_TODO_DONE_UPDATED"),
+        Arguments.of(filter(null, false, true, false, TodoFilter.SORT_CREATED_AT), "IDX_TODO_DONE_CREATED"),
+        Arguments.of(filter(null, null, false, true, TodoFilter.SORT_UPDATED_AT), "IDX_TODO_UPDATED"),
+        Arguments.of(filter(null, null, true, false, TodoFilter.SORT_CREATED_AT), "IDX_TODO_CREATED")
+    );
+  }
+
+  @BeforeEach
+  public void clearStatements() {
+    statements.clear();
+  }
+
+  @ParameterizedTest
+  @MethodSource("filterCombinations")
+  public void test_filterCombination_explain_ShouldUseIndex(TodoFilter filter, String expectedIndex) throws Exception {
+    var cursor = new Cursor(10L, Timestamp.from(Instant.parse("2022-06-01T00:00:00Z")));
+    var spec = new TodoSpecification(filter).and(TodoSpecification.after(filter, cursor));
+    todoRepository.findSummaries(spec, TodoSpecification.sort(filter), 10);
+
+    var captured = statements.stream()
+        .filter(x -> x.sql().contains("from todo"))
+        .findFirst()
+        .orElseThrow();
+
+    try(var connection = dataSource.getConnection();
+        var statement = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+      // The values of the filter, so the planner sees the predicates the query really sends
+      var parameters = statement.getParameterMetaData().getParameterCount();
+      assertThat(captured.parameters()).hasSize(parameters);
+      for(var parameter : captured.parameters().entrySet()) {
+        statement.setObject(parameter.getKey(), parameter.getValue());
+      }
+      try(var result = statement.executeQuery()) {
+        result.next();
+        var plan = result.getString(1);
+        assertThat(plan).doesNotContain("tableScan");
+        assertThat(plan).contains(expectedIndex);
+      }
+    }
+  }
+}
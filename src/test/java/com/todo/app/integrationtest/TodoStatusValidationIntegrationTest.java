@@ -0,0 +1,60 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.service.TodoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TodoStatusValidationIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private TodoService todoService;
+
+  @ParameterizedTest
+  @ValueSource(strings = {"{}", "{\"don\":true}", "{\"done\":null}"})
+  public void test_updateStatus_withoutDone_ShouldReturnBadRequestAndKeepStatus(String body) throws Exception {
+    var todo = createDoneTodo();
+
+    mockMvc.perform(patch("/api/todo/" + todo.getId() + "/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body))
+        .andExpect(status().isBadRequest());
+
+    assertTrue(todoService.findById(todo.getId()).isDone());
+  }
+
+  @Test
+  public void test_updateStatus_withDone_ShouldUpdateStatus() throws Exception {
+    var todo = createDoneTodo();
+
+    mockMvc.perform(patch("/api/todo/" + todo.getId() + "/status")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"done\":false}"))
+        .andExpect(status().isOk());
+
+    assertFalse(todoService.findById(todo.getId()).isDone());
+  }
+
+  private Todo createDoneTodo() throws Exception {
+    var todo = todoService.create(createValidTodo("Status"));
+    todoService.updateStatus(todo.getId(), true);
+    return todo;
+  }
+}
@@ -0,0 +1,160 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoChanges;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.entity.TodoTombstone;
+import com.todo.app.entity.User;
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.repository.TodoTombstoneRepository;
+import com.todo.app.service.TodoService;
+import com.todo.app.service.TodoSyncService;
+import com.todo.app.service.UserService;
+import com.todo.app.utils.CursorUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+    "app.sync.overlap=PT0S",
+    "spring.datasource.url=jdbc:h2:mem:sync"
+})
+public class TodoSyncIntegrationTest {
+
+  @Autowired
+  private TodoSyncService todoSyncService;
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private TodoTombstoneRepository tombstoneRepository;
+
+  @Test
+  public void test_findChanges_noToken_ShouldReturnWholeList() throws Exception {
+    var user = userService.create(createValidUser("sync-full"));
+    var first = create(user, "First");
+    var second = create(user, "Second");
+    create(userService.create(createValidUser("sync-other")), "Other");
+
+    var changes = sync(user, null);
+
+    assertTrue(changes.isFull());
+    assertThat(ids(changes.getItems())).containsExactly(first.getId(), second.getId());
+    assertThat(changes.getDeletedIds()).isEmpty();
+    assertThat(changes.getNext()).isNotNull();
+  }
+
+  @Test
+  public void test_findChanges_withToken_ShouldOnlyReturnChangesSinceToken() throws Exception {
+    var user = userService.create(createValidUser("sync-delta"));
+    create(user, "Unchanged");
+    var updated = create(user, "Updated");
+    var deleted = create(user, "Deleted");
+    var token = sync(user, null).getNext();
+
+    todoService.updateStatus(updated.getId(), true);
+    todoService.deleteById(deleted.getId());
+    var created = create(user, "Created");
+    var changes = sync(user, token);
+
+    assertFalse(changes.isFull());
+    assertThat(ids(changes.getItems())).containsExactly(updated.getId(), created.getId());
+    assertThat(changes.getDeletedIds()).containsExactly(deleted.getId());
+
+    var nothing = sync(user, changes.getNext());
+    assertThat(nothing.getItems()).isEmpty();
+    assertThat(nothing.getDeletedIds()).isEmpty();
+  }
+
+  @Test
+  public void test_findChanges_ownerChanged_ShouldReportDeletedToPreviousOwner() throws Exception {
+    var previous = userService.create(createValidUser("sync-previous"));
+    var next = userService.create(createValidUser("sync-next"));
+    var todo = create(previous, "Moved");
+    var previousToken = sync(previous, null).getNext();
+    var nextToken = sync(next, null).getNext();
+
+    var moved = createValidTodo(todo.getId(), "Moved");
+    moved.setOwner(next);
+    todoService.updateTodo(moved);
+
+    var previousChanges = sync(previous, previousToken);
+    assertThat(previousChanges.getItems()).isEmpty();
+    assertThat(previousChanges.getDeletedIds()).containsExactly(todo.getId());
+    var nextChanges = sync(next, nextToken);
+    assertThat(ids(nextChanges.getItems())).containsExactly(todo.getId());
+    assertThat(nextChanges.getDeletedIds()).isEmpty();
+  }
+
+  @Test
+  public void test_findChanges_afterDeleteAllByUserId_ShouldReturnEveryDeletedId() throws Exception {
+    var user = userService.create(createValidUser("sync-delete-all"));
+    var first = create(user, "First");
+    var second = create(user, "Second");
+    var token = sync(user, null).getNext();
+
+    todoService.deleteAllByUserId(user.getId(), null);
+
+    assertThat(sync(user, token).getDeletedIds()).containsExactlyInAnyOrder(first.getId(), second.getId());
+  }
+
+  @Test
+  public void test_findChanges_tokenOlderThanTombstones_ShouldReturnWholeList() throws Exception {
+    var user = userService.create(createValidUser("sync-expired"));
+    var todo = create(user, "Kept");
+
+    var changes = sync(user, CursorUtils.encodeSyncToken(new Timestamp(0)));
+
+    assertTrue(changes.isFull());
+    assertThat(ids(changes.getItems())).containsExactly(todo.getId());
+  }
+
+  @Test
+  public void test_findChanges_invalidToken_ShouldThrowBadRequestException() {
+    assertThrows(BadRequestException.class, () -> todoSyncService.findChanges(1L, "not a token"));
+  }
+
+  @Test
+  public void test_compact_ShouldOnlyDeleteTombstonesOlderThanRetention() {
+    var expired = tombstoneRepository.save(new TodoTombstone(1L, 1L, new Timestamp(0)));
+    var kept = tombstoneRepository.save(new TodoTombstone(2L, 1L, new Timestamp(System.currentTimeMillis())));
+
+    todoSyncService.compact();
+
+    assertFalse(tombstoneRepository.existsById(expired.getId()));
+    assertTrue(tombstoneRepository.existsById(kept.getId()));
+  }
+
+  private Todo create(User owner, String message) throws Exception {
+    var todo = createValidTodo(message);
+    todo.setOwner(owner);
+    return todoService.create(todo);
+  }
+
+  /**
+   * Syncs a millisecond after the previous changes, so none of them shares the instant of
+   * the token.
+   */
+  private TodoChanges sync(User user, String token) throws Exception {
+    Thread.sleep(2);
+    return todoSyncService.findChanges(user.getId(), token);
+  }
+
+  private static List<Long> ids(List<TodoSummary> items) {
+    return items.stream().map(TodoSummary::getId).toList();
+  }
+}
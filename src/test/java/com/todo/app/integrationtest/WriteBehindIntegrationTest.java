@@ -0,0 +1,181 @@
+package com.todo.app.integrationtest;
+
+import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.entity.User;
+import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.exceptions.PreconditionFailedException;
+import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.service.TodoService;
+import com.todo.app.service.UserService;
+import com.todo.app.storage.TodoWriteBehind;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static com.todo.app.utils.UserUtils.createValidUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The queue is only written when a test flushes it, the flush interval is longer than any
+ * test.
+ */
+@SpringBootTest(properties = {
+    "app.storage.write-behind.enabled=true",
+    "app.storage.write-behind.flush-interval=PT1H",
+    "spring.datasource.url=jdbc:h2:mem:write-behind"
+})
+public class WriteBehindIntegrationTest {
+
+  @Autowired
+  private TodoService todoService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private TodoWriteBehind writeBehind;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void test_create_ShouldBeReadableBeforeWritten() throws Exception {
+    var user = userService.create(createValidUser("write-behind-create"));
+    var todo = create(user, "Queued");
+
+    assertEquals(0, rows(todo.getId()));
+    assertEquals("Queued", todoService.findById(todo.getId()).getMessage());
+    assertEquals(0L, todoService.findVersion(todo.getId()));
+    assertThat(ids(todoService.findAllByUserId(user.getId()))).containsExactly(todo.getId());
+    assertThat(ids(todoService.findPage(TodoFilter.byOwner(user.getId()), null, 10).getItems()))
+        .containsExactly(todo.getId());
+
+    writeBehind.flush();
+
+    assertEquals(1, rows(todo.getId()));
+    assertEquals(0, writeBehind.queuedCount());
+    assertThat(ids(todoService.findAllByUserId(user.getId()))).containsExactly(todo.getId());
+  }
+
+  @Test
+  public void test_updates_ShouldBeCoalescedIntoOneRowWrite() throws Exception {
+    var user = userService.create(createValidUser("write-behind-coalesce"));
+    var todo = create(user, "First");
+    writeBehind.flush();
+    var written = writeBehind.writtenCount();
+
+    todoService.updateStatus(todo.getId(), true);
+    todoService.updateMessage(todo.getId(), "Second");
+    todoService.updateMessage(todo.getId(), "Third", 2L);
+    var queued = todoService.findById(todo.getId());
+    assertEquals("Third", queued.getMessage());
+    assertEquals(3L, queued.getVersion());
+
+    writeBehind.flush();
+
+    assertEquals(written + 1, writeBehind.writtenCount());
+    var row = jdbcTemplate.queryForMap("select message, done, version from todo where id = ?", todo.getId());
+    assertEquals("Third", row.get("MESSAGE"));
+    assertEquals(true, row.get("DONE"));
+    assertEquals(3L, row.get("VERSION"));
+  }
+
+  @Test
+  public void test_update_withStaleVersion_ShouldThrowPreconditionFailedException() throws Exception {
+    var user = userService.create(createValidUser("write-behind-stale"));
+    var todo = create(user, "Versioned");
+    todoService.updateStatus(todo.getId(), true, 0L);
+
+    assertThrows(PreconditionFailedException.class, () -> todoService.updateStatus(todo.getId(), false, 0L));
+    assertTrue(todoService.findById(todo.getId()).isDone());
+  }
+
+  @Test
+  public void test_update_missingTodo_ShouldThrowResourceNotFoundException() {
+    assertThrows(ResourceNotFoundException.class, () -> todoService.updateStatus(-1L, true));
+  }
+
+  @Test
+  public void test_delete_ShouldWriteQueuedChangeOfTodoFirst() throws Exception {
+    var user = userService.create(createValidUser("write-behind-delete"));
+    var todo = create(user, "Deleted");
+    todoService.updateStatus(todo.getId(), true);
+    var other = create(user, "Still queued");
+
+    todoService.deleteById(todo.getId());
+
+    assertEquals(0, rows(todo.getId()));
+    assertThrows(ResourceNotFoundException.class, () -> todoService.findById(todo.getId()));
+    assertEquals(0, rows(other.getId()));
+    assertEquals("Still queued", todoService.findById(other.getId()).getMessage());
+  }
+
+  @Test
+  public void test_create_unknownOwner_ShouldThrowBadRequestException() {
+    var owner = createValidUser("write-behind-unknown");
+    owner.setId(-1L);
+
+    assertThrows(BadRequestException.class, () -> create(owner, "Orphan"));
+  }
+
+  @Test
+  public void test_tooLongMessage_ShouldBeRejectedBeforeQueued() throws Exception {
+    var user = userService.create(createValidUser("write-behind-too-long"));
+    var tooLong = "x".repeat(Todo.MAX_MESSAGE_LENGTH + 1);
+    assertThrows(BadRequestException.class, () -> create(user, tooLong));
+
+    var todo = create(user, "Short");
+    assertThrows(BadRequestException.class, () -> todoService.updateMessage(todo.getId(), tooLong));
+    assertEquals("Short", todoService.findById(todo.getId()).getMessage());
+  }
+
+  @Test
+  public void test_create_ownerDeletedBeforeWritten_ShouldCountFailure() throws Exception {
+    var user = userService.create(createValidUser("write-behind-dropped"));
+    var todo = create(user, "Dropped");
+    var failures = writeBehind.failureCount();
+    jdbcTemplate.update("delete from u where id = ?", user.getId());
+
+    writeBehind.flush();
+
+    assertEquals(failures + 1, writeBehind.failureCount());
+    assertEquals(0, rows(todo.getId()));
+  }
+
+  @Test
+  public void test_updateTodo_ShouldApplyOnQueuedState() throws Exception {
+    var user = userService.create(createValidUser("write-behind-replace"));
+    var todo = create(user, "Queued");
+    todoService.updateStatus(todo.getId(), true);
+
+    var replaced = createValidTodo(todo.getId(), "Replaced");
+    replaced.setOwner(user);
+    var updated = todoService.updateTodo(replaced, 1L);
+
+    assertEquals(2L, updated.getVersion());
+    assertEquals("Replaced", todoService.findById(todo.getId()).getMessage());
+  }
+
+  private Todo create(User owner, String message) throws Exception {
+    var todo = createValidTodo(message);
+    todo.setOwner(owner);
+    return todoService.create(todo);
+  }
+
+  private int rows(Long id) {
+    return jdbcTemplate.queryForObject("select count(*) from todo where id = ?", Integer.class, id);
+  }
+
+  private static List<Long> ids(List<TodoSummary> items) {
+    return items.stream().map(TodoSummary::getId).toList();
+  }
+}
@@ -0,0 +1,62 @@
+package com.todo.app.unittest;
+
+import com.todo.app.utils.LogRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogRateLimiterUnitTest {
+
+  @Test
+  public void test_tryAcquire_overLimit_ShouldDenyUntilNextWindow() {
+    var clock = new AtomicLong();
+    var limiter = new LogRateLimiter(2, Duration.ofSeconds(1), 0, clock::get);
+
+    assertEquals(0, limiter.tryAcquire());
+    assertEquals(0, limiter.tryAcquire());
+    assertEquals(LogRateLimiter.DENIED, limiter.tryAcquire());
+
+    clock.addAndGet(Duration.ofMillis(999).toNanos());
+    assertEquals(LogRateLimiter.DENIED, limiter.tryAcquire());
+  }
+
+  @Test
+  public void test_tryAcquire_afterDenied_ShouldReportSkippedOnce() {
+    var clock = new AtomicLong();
+    var limiter = new LogRateLimiter(1, Duration.ofSeconds(1), 0, clock::get);
+
+    limiter.tryAcquire();
+    for(int i = 0; i < 5; ++i) {
+      limiter.tryAcquire();
+    }
+
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertEquals(5, limiter.tryAcquire());
+
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertEquals(0, limiter.tryAcquire());
+  }
+
+  @Test
+  public void test_tryAcquire_overLimitWithSampling_ShouldLetSampleThroughAndReportSkipped() {
+    var limiter = new LogRateLimiter(0, Duration.ofHours(1), 10, new AtomicLong()::get);
+
+    int logged = 0;
+    long reported = 0;
+    for(int i = 0; i < 10_000; ++i) {
+      var skipped = limiter.tryAcquire();
+      if(skipped != LogRateLimiter.DENIED) {
+        ++logged;
+        reported += skipped;
+      }
+    }
+
+    assertTrue(logged > 500 && logged < 1500, "Sampled " + logged + " lines out of 10000");
+    // Only the lines dropped after the last sampled one are not reported yet
+    assertTrue(reported <= 10_000 - logged && reported > 10_000 - logged - 200);
+  }
+}
@@ -0,0 +1,130 @@
+package com.todo.app.unittest;
+
+import com.todo.app.storage.LogRecord;
+import com.todo.app.storage.MutationLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MutationLogUnitTest {
+
+  @TempDir
+  private Path directory;
+
+  private static LogRecord todo(long id, String message) {
+    var timestamp = Timestamp.valueOf("2022-05-24 19:21:27.836123");
+    return LogRecord.todoPut(id, message, id % 2 == 0, timestamp, timestamp, id, id % 2 == 0 ? null : 7L);
+  }
+
+  private static List<LogRecord> readAll(MutationLog log) throws IOException {
+    List<LogRecord> records = new ArrayList<>();
+    var snapshot = log.readSnapshot(records::add);
+    log.readSegments(snapshot, records::add);
+    return records;
+  }
+
+  private static long files(Path directory, String prefix) throws IOException {
+    try(Stream<Path> files = Files.list(directory)) {
+      return files.filter(x -> x.getFileName().toString().startsWith(prefix)).count();
+    }
+  }
+
+  @Test
+  public void test_append_reopen_ShouldReplayRecordsInOrderAcrossSegments() throws IOException {
+    var log = new MutationLog(directory, 200, false);
+    log.open();
+    List<CompletableFuture<Long>> written = new ArrayList<>();
+    for(long i = 1; i <= 20; ++i) {
+      written.add(log.append(todo(i, "message " + i)));
+    }
+    written.add(log.append(LogRecord.userPut(7, "owner")));
+    written.add(log.append(LogRecord.todoDeleted(3)));
+    written.forEach(CompletableFuture::join);
+    log.close();
+
+    var records = readAll(new MutationLog(directory, 200, false));
+    assertEquals(22, records.size());
+    assertEquals(todo(1, "message 1"), records.get(0));
+    assertEquals(todo(20, "message 20"), records.get(19));
+    assertEquals(LogRecord.userPut(7, "owner"), records.get(20));
+    assertEquals(LogRecord.todoDeleted(3), records.get(21));
+    assert(files(directory, "segment-") > 1);
+  }
+
+  @Test
+  public void test_readSegments_tornLastRecord_ShouldStopBeforeIt() throws IOException {
+    var log = new MutationLog(directory, 1 << 20, false);
+    log.open();
+    log.append(todo(1, "first")).join();
+    log.append(todo(2, "second")).join();
+    log.close();
+
+    Path segment;
+    try(Stream<Path> files = Files.list(directory)) {
+      segment = files.filter(x -> x.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+    }
+    var bytes = Files.readAllBytes(segment);
+    Files.write(segment, Arrays.copyOf(bytes, bytes.length - 3), StandardOpenOption.TRUNCATE_EXISTING);
+
+    var records = readAll(new MutationLog(directory, 1 << 20, false));
+    assertEquals(List.of(todo(1, "first")), records);
+  }
+
+  @Test
+  public void test_writeSnapshot_ShouldReplaceOlderSegmentsAndKeepLaterOnes() throws IOException {
+    var log = new MutationLog(directory, 1 << 20, false);
+    log.open();
+    log.append(todo(1, "before snapshot")).join();
+    var number = log.roll();
+    log.append(todo(2, "after snapshot")).join();
+    log.writeSnapshot(number, out -> out.accept(todo(1, "in snapshot")));
+    log.close();
+
+    assertEquals(1, files(directory, "snapshot-"));
+    var records = readAll(new MutationLog(directory, 1 << 20, false));
+    assertEquals(List.of(todo(1, "in snapshot"), todo(2, "after snapshot")), records);
+  }
+
+  @Test
+  public void test_append_segmentCannotBeStarted_ShouldFailAndRejectAppends() throws IOException {
+    var log = new MutationLog(directory, 1 << 20, false);
+    log.open();
+    log.append(todo(1, "written")).join();
+    try(Stream<Path> files = Files.list(directory)) {
+      for(var file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+
+    assertThrows(CompletionException.class, log::roll);
+    assertThrows(IllegalStateException.class, () -> log.append(todo(2, "rejected")));
+    log.close();
+  }
+
+  @Test
+  public void test_encode_read_nullFields_ShouldRoundTrip() throws IOException {
+    var record = LogRecord.todoPut(5, null, true, null, null, 0, null);
+    var in = new DataInputStream(new ByteArrayInputStream(record.encode()));
+
+    assertEquals(record, LogRecord.read(in));
+    assertNull(LogRecord.read(in));
+  }
+}
@@ -0,0 +1,56 @@
+package com.todo.app.unittest;
+
+import com.todo.app.datasource.ReadYourWrites;
+import com.todo.app.datasource.RoutingDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadYourWritesUnitTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(2), nanos::get);
+
+  @Test
+  public void test_readTodo_writtenInWindow_ShouldNotAllowReplica() {
+    readYourWrites.todoWritten(1L, 7L);
+
+    assertFalse(readYourWrites.readTodo(1L, ReadYourWritesUnitTest::replicaAllowed));
+    assertFalse(readYourWrites.readUser(7L, ReadYourWritesUnitTest::replicaAllowed));
+    assertFalse(readYourWrites.readAll(ReadYourWritesUnitTest::replicaAllowed));
+    assertTrue(readYourWrites.readTodo(2L, ReadYourWritesUnitTest::replicaAllowed));
+    assertTrue(readYourWrites.readUser(8L, ReadYourWritesUnitTest::replicaAllowed));
+  }
+
+  @Test
+  public void test_readTodo_windowElapsed_ShouldAllowReplica() {
+    readYourWrites.todoWritten(1L, 7L);
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+    assertTrue(readYourWrites.readTodo(1L, ReadYourWritesUnitTest::replicaAllowed));
+    assertTrue(readYourWrites.readUser(7L, ReadYourWritesUnitTest::replicaAllowed));
+    assertTrue(readYourWrites.readAll(ReadYourWritesUnitTest::replicaAllowed));
+  }
+
+  @Test
+  public void test_zeroWindow_ShouldAlwaysAllowReplica() {
+    var noStickiness = new ReadYourWrites(Duration.ZERO, nanos::get);
+    noStickiness.userWritten(7L);
+
+    assertTrue(noStickiness.readUser(7L, ReadYourWritesUnitTest::replicaAllowed));
+    assertTrue(noStickiness.readAll(ReadYourWritesUnitTest::replicaAllowed));
+  }
+
+  /**
+   * Whether a read-only transaction would use the replica, outside a transaction there is
+   * none, so this checks the opt-in alone.
+   */
+  private static boolean replicaAllowed() {
+    return RoutingDataSource.isReplicaAllowed();
+  }
+}
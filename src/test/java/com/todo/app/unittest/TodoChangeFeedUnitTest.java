@@ -0,0 +1,190 @@
+package com.todo.app.unittest;
+
+import com.todo.app.entity.TodoChange;
+import com.todo.app.event.TodoEvent;
+import com.todo.app.feed.TodoChangeFeed;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TodoChangeFeedUnitTest {
+
+  private static final Duration SEND_TIMEOUT = Duration.ofSeconds(5);
+
+  /**
+   * Runs the drains only when asked, like threads that fell behind.
+   */
+  private final Queue<Runnable> pending = new ArrayDeque<>();
+  private final Executor executor = pending::add;
+  private final AtomicLong clock = new AtomicLong(1);
+
+  @Test
+  public void test_publish_ShouldOnlyReachSubscribersOfOwner() {
+    var feed = new TodoChangeFeed(executor, 8, SEND_TIMEOUT, clock::get);
+    var first = new RecordingSink();
+    var second = new RecordingSink();
+    subscribe(feed, 1, first);
+    subscribe(feed, 2, second);
+
+    feed.publish(1, change(10));
+    feed.publish(3, change(30));
+    runPending();
+
+    assertThat(first.received).containsExactly("UPDATED 10");
+    assertThat(second.received).isEmpty();
+  }
+
+  @Test
+  public void test_publish_bufferFull_ShouldDropAndResyncOnce() {
+    var feed = new TodoChangeFeed(executor, 2, SEND_TIMEOUT, clock::get);
+    var sink = new RecordingSink();
+    subscribe(feed, 1, sink);
+
+    for(long i = 1; i <= 5; ++i) {
+      feed.publish(1, change(i));
+    }
+    runPending();
+    feed.publish(1, change(6));
+    runPending();
+
+    assertThat(sink.received).containsExactly("resync", "UPDATED 6");
+    assertThat(feed.resyncCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void test_subscribe_reconnected_ShouldStartWithResync() {
+    var feed = new TodoChangeFeed(executor, 8, SEND_TIMEOUT, clock::get);
+    var sink = new RecordingSink();
+    feed.subscribe(1, sink, true);
+
+    feed.publish(1, change(1));
+    runPending();
+
+    assertThat(sink.received).containsExactly("resync");
+  }
+
+  @Test
+  public void test_heartbeat_ShouldOnlyReachIdleSubscribers() {
+    var feed = new TodoChangeFeed(executor, 8, SEND_TIMEOUT, clock::get);
+    var idle = new RecordingSink();
+    var busy = new RecordingSink();
+    subscribe(feed, 1, idle);
+    subscribe(feed, 2, busy);
+
+    feed.publish(2, change(20));
+    feed.heartbeat();
+    runPending();
+
+    assertThat(idle.received).containsExactly("heartbeat");
+    assertThat(busy.received).containsExactly("UPDATED 20");
+  }
+
+  @Test
+  public void test_sinkFails_ShouldUnsubscribe() {
+    var feed = new TodoChangeFeed(executor, 8, SEND_TIMEOUT, clock::get);
+    var sink = new RecordingSink();
+    sink.failing = true;
+    subscribe(feed, 1, sink);
+
+    feed.publish(1, change(1));
+    runPending();
+    feed.publish(1, change(2));
+    runPending();
+
+    assertThat(feed.subscriberCount()).isZero();
+    assertThat(sink.received).containsExactly("UPDATED 1");
+  }
+
+  @Test
+  public void test_dropStalled_sendOverTimeout_ShouldUnsubscribe() {
+    var feed = new TodoChangeFeed(executor, 8, SEND_TIMEOUT, clock::get);
+    var sink = new RecordingSink();
+    var other = new RecordingSink();
+    subscribe(feed, 1, sink);
+    subscribe(feed, 1, other);
+    // The check runs while the send to the first subscriber is blocked
+    sink.whileSending = () -> {
+      clock.addAndGet(SEND_TIMEOUT.toNanos() + 1);
+      feed.dropStalled();
+    };
+
+    feed.publish(1, change(1));
+    runPending();
+    feed.publish(1, change(2));
+    runPending();
+
+    assertThat(sink.received).containsExactly("UPDATED 1");
+    assertThat(other.received).containsExactly("UPDATED 1", "UPDATED 2");
+    assertThat(feed.subscriberCount()).isEqualTo(1);
+    assertThat(feed.stalledCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void test_unsubscribe_ShouldStopDelivery() {
+    var feed = new TodoChangeFeed(executor, 8, SEND_TIMEOUT, clock::get);
+    var sink = new RecordingSink();
+    var subscriber = subscribe(feed, 1, sink);
+
+    feed.unsubscribe(subscriber);
+    feed.publish(1, change(1));
+    runPending();
+
+    assertThat(sink.received).isEmpty();
+    assertThat(feed.subscriberCount()).isZero();
+  }
+
+  /**
+   * Subscribes and drops the heartbeat sent first.
+   */
+  private TodoChangeFeed.Subscriber subscribe(TodoChangeFeed feed, long ownerId, RecordingSink sink) {
+    var subscriber = feed.subscribe(ownerId, sink, false);
+    runPending();
+    assertThat(sink.received).containsExactly("heartbeat");
+    sink.received.clear();
+    return subscriber;
+  }
+
+  private void runPending() {
+    while(!pending.isEmpty()) {
+      pending.poll().run();
+    }
+  }
+
+  private static TodoChange change(long todoId) {
+    return new TodoChange(TodoEvent.Type.UPDATED, todoId);
+  }
+
+  private static class RecordingSink implements TodoChangeFeed.Sink {
+    private final List<String> received = new ArrayList<>();
+    private boolean failing;
+    private Runnable whileSending = () -> { };
+
+    @Override
+    public void change(TodoChange change) throws IOException {
+      received.add(change.getType() + " " + change.getTodoId());
+      whileSending.run();
+      if(failing) {
+        throw new IOException("Connection closed");
+      }
+    }
+
+    @Override
+    public void resync() {
+      received.add("resync");
+    }
+
+    @Override
+    public void heartbeat() {
+      received.add("heartbeat");
+    }
+  }
+}
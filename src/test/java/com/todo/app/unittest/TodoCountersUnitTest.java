@@ -0,0 +1,63 @@
+package com.todo.app.unittest;
+
+import com.todo.app.stats.TodoCounters;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoCountersUnitTest {
+
+  @Test
+  public void test_add_ShouldKeepCountsOfOwner() {
+    var counters = new TodoCounters();
+    counters.add(7L, false, 1);
+    counters.add(7L, false, 1);
+    counters.add(8L, true, 1);
+
+    // One TODO done, the other deleted
+    counters.add(7L, false, -1);
+    counters.add(7L, true, 1);
+    counters.add(7L, false, -1);
+
+    var stats = counters.get(7L);
+    assertEquals(1, stats.getTotal());
+    assertEquals(1, stats.getDone());
+    assertEquals(0, stats.getPending());
+  }
+
+  @Test
+  public void test_add_ownerChanged_ShouldMoveTodoBetweenOwners() {
+    var counters = new TodoCounters();
+    counters.add(7L, true, 1);
+    counters.add(7L, true, -1);
+    counters.add(8L, true, 1);
+
+    assertEquals(0, counters.get(7L).getTotal());
+    assertEquals(1, counters.get(8L).getDone());
+  }
+
+  @Test
+  public void test_add_withoutOwner_ShouldBeIgnored() {
+    var counters = new TodoCounters();
+    counters.add(null, true, 1);
+
+    assertEquals(0, counters.size());
+  }
+
+  @Test
+  public void test_finishBuild_ShouldCorrectDriftAndKeepChangesMadeDuringBuild() {
+    var counters = new TodoCounters();
+    counters.add(7L, false, 1);
+    counters.add(7L, false, 1);
+
+    counters.beginBuild();
+    var snapshot = new TodoCounters();
+    snapshot.put(7L, 3, 1);
+    counters.add(7L, false, -1);
+
+    assertEquals(1, counters.finishBuild(snapshot));
+    var stats = counters.get(7L);
+    assertEquals(2, stats.getTotal());
+    assertEquals(1, stats.getDone());
+  }
+}
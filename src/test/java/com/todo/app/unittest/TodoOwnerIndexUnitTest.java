@@ -0,0 +1,96 @@
+package com.todo.app.unittest;
+
+import com.todo.app.index.LongLongHashMap;
+import com.todo.app.index.TodoOwnerIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TodoOwnerIndexUnitTest {
+
+  @Test
+  public void test_find_notBuilt_ShouldReturnNull() {
+    var index = new TodoOwnerIndex();
+    index.put(1L, 7L);
+
+    assertNull(index.find(7L));
+  }
+
+  @Test
+  public void test_put_remove_ShouldKeepSortedIdsOfOwner() {
+    var index = built(new TodoOwnerIndex());
+    index.put(5L, 7L);
+    index.put(2L, 7L);
+    index.put(9L, 7L);
+    index.put(3L, 8L);
+    index.remove(5L);
+
+    assertArrayEquals(new long[] {2L, 9L}, index.find(7L));
+    assertArrayEquals(new long[] {3L}, index.find(8L));
+    assertArrayEquals(new long[0], index.find(99L));
+    assertEquals(3, index.size());
+  }
+
+  @Test
+  public void test_put_ownerChanged_ShouldMoveTodoBetweenOwners() {
+    var index = built(new TodoOwnerIndex());
+    index.put(1L, 7L);
+    index.put(1L, 8L);
+    index.put(2L, 8L);
+    index.put(2L, null);
+
+    assertArrayEquals(new long[0], index.find(7L));
+    assertArrayEquals(new long[] {1L}, index.find(8L));
+  }
+
+  @Test
+  public void test_finishBuild_changedDuringBuild_ShouldKeepChange() {
+    var index = new TodoOwnerIndex();
+    index.beginBuild();
+    index.put(1L, 8L);
+    index.remove(2L);
+
+    var snapshot = new TodoOwnerIndex();
+    snapshot.put(1L, 7L);
+    snapshot.put(2L, 7L);
+    snapshot.put(3L, 7L);
+    index.finishBuild(snapshot);
+
+    assertArrayEquals(new long[] {3L}, index.find(7L));
+    assertArrayEquals(new long[] {1L}, index.find(8L));
+  }
+
+  @Test
+  public void test_longLongHashMap_randomOperations_ShouldMatchHashMap() {
+    var random = new Random(42);
+    var map = new LongLongHashMap();
+    Map<Long, Long> expected = new HashMap<>();
+    for(int i = 0; i < 200_000; ++i) {
+      long key = random.nextInt(5000);
+      if(random.nextBoolean()) {
+        assertEquals(expected.getOrDefault(key, -1L), map.put(key, i, -1));
+        expected.put(key, (long) i);
+      } else {
+        assertEquals(expected.getOrDefault(key, -1L), map.remove(key, -1));
+        expected.remove(key);
+      }
+    }
+
+    assertEquals(expected.size(), map.size());
+    for(long key = 0; key < 5000; ++key) {
+      assertEquals(expected.getOrDefault(key, -1L), map.get(key, -1));
+    }
+  }
+
+  private static TodoOwnerIndex built(TodoOwnerIndex index) {
+    index.beginBuild();
+    index.finishBuild(new TodoOwnerIndex());
+    return index;
+  }
+}
@@ -0,0 +1,88 @@
+package com.todo.app.unittest;
+
+import com.todo.app.search.TodoSearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TodoSearchIndexUnitTest {
+
+  @Test
+  public void test_tokenize_mixedText_ShouldSplitOnNonWordCharacters() {
+    assertEquals(List.of("buy", "2", "cafés", "today"), TodoSearchIndex.tokenize("Buy 2 Cafés, today!"));
+  }
+
+  @Test
+  public void test_search_everyTermMustMatch() {
+    var index = new TodoSearchIndex();
+    index.index(1L, null, "buy milk");
+    index.index(2L, null, "buy bread");
+
+    assertEquals(List.of(1L), index.search("milk buy", null, 10));
+  }
+
+  @Test
+  public void test_search_prefix_ShouldMatchLongerTerms() {
+    var index = new TodoSearchIndex();
+    index.index(1L, null, "schedule dentist appointment");
+
+    assertEquals(List.of(1L), index.search("dent", null, 10));
+  }
+
+  @Test
+  public void test_search_exactMatch_ShouldRankAbovePrefixMatch() {
+    var index = new TodoSearchIndex();
+    index.index(1L, null, "read the report");
+    index.index(2L, null, "read");
+    index.index(3L, null, "reading list");
+
+    var results = index.search("read", null, 10);
+    assertEquals(3L, results.get(results.size() - 1));
+  }
+
+  @Test
+  public void test_search_withOwner_ShouldOnlyReturnOwnerTodos() {
+    var index = new TodoSearchIndex();
+    index.index(1L, 1L, "call mom");
+    index.index(2L, 2L, "call mom");
+
+    assertEquals(List.of(2L), index.search("call", 2L, 10));
+  }
+
+  @Test
+  public void test_index_updatedMessage_ShouldForgetOldTerms() {
+    var index = new TodoSearchIndex();
+    index.index(1L, null, "old text");
+    index.index(1L, null, "new text");
+
+    assertThat(index.search("old", null, 10)).isEmpty();
+    assertEquals(List.of(1L), index.search("new", null, 10));
+  }
+
+  @Test
+  public void test_updateMessage_ShouldKeepOwner() {
+    var index = new TodoSearchIndex();
+    index.index(1L, 2L, "old text");
+    index.updateMessage(1L, "new text");
+
+    assertThat(index.search("old", null, 10)).isEmpty();
+    assertEquals(List.of(1L), index.search("new", 2L, 10));
+  }
+
+  @Test
+  public void test_finishBuild_changedDuringBuild_ShouldKeepIncrementalChange() {
+    var index = new TodoSearchIndex();
+    index.beginBuild();
+    index.remove(1L);
+
+    var partial = new TodoSearchIndex();
+    partial.index(1L, null, "stale snapshot");
+    partial.index(2L, null, "fresh snapshot");
+    index.finishBuild(List.of(partial));
+
+    assertEquals(List.of(2L), index.search("snapshot", null, 10));
+  }
+}
@@ -1,33 +1,83 @@
 package com.todo.app.unittest;
 
+import com.todo.app.cache.EntityCache;
+import com.todo.app.cache.TodoListCache;
+import com.todo.app.datasource.ReadYourWrites;
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoFilter;
+import com.todo.app.entity.TodoState;
+import com.todo.app.entity.TodoSummary;
+import com.todo.app.event.TodoEvent;
 import com.todo.app.exceptions.BadRequestException;
+import com.todo.app.exceptions.PreconditionFailedException;
 import com.todo.app.exceptions.ResourceAlreadyExistsException;
 import com.todo.app.exceptions.ResourceNotFoundException;
+import com.todo.app.index.TodoOwnerIndex;
 import com.todo.app.repository.TodoRepository;
+import com.todo.app.repository.TodoTombstoneRepository;
+import com.todo.app.repository.UserRepository;
 import com.todo.app.service.TodoService;
+import com.todo.app.storage.TodoWriteBehind;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
+import static com.todo.app.utils.TodoUtils.createValidSummary;
 import static com.todo.app.utils.TodoUtils.createValidTodo;
+import static com.todo.app.utils.UserUtils.createValidUser;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class TodoServiceUnitTest {
   @Mock
   private TodoRepository todoRepository;
+  @Mock
+  private UserRepository userRepository;
+  @Mock
+  private TodoTombstoneRepository tombstoneRepository;
+  @Spy
+  private EntityCache<Todo> todoCache = new EntityCache<>(100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Spy
+  private TodoListCache todoListCache = new TodoListCache(1000, Duration.ofMinutes(1), 100);
+  @Spy
+  private TodoOwnerIndex ownerIndex = new TodoOwnerIndex();
+  @Spy
+  private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(2));
+  @Spy
+  private TodoWriteBehind writeBehind = new TodoWriteBehind(false, null, null, null, null, Duration.ZERO, 1, 1);
+  @Mock
+  private TransactionOperations transaction;
   @InjectMocks
   private TodoService todoService;
 
@@ -35,7 +85,11 @@ public class TodoServiceUnitTest {
 
   @Test
   public void test_todoCreate_withValidMessage_shouldReturnTodo() throws Exception {
-    when(todoRepository.save(any(Todo.class))).then(returnsFirstArg());
+    when(todoRepository.save(any(Todo.class))).then(invocation -> {
+      Todo todo = invocation.getArgument(0);
+      todo.setId(100L);
+      return todo;
+    });
 
     Todo todo = createValidTodo(1L);
     Todo newTodo = todoService.create(todo);
@@ -43,6 +97,23 @@ public class TodoServiceUnitTest {
     assertThat(newTodo.getMessage()).isNotNull();
   }
 
+  @Test
+  public void test_create_ShouldDropOwnerListAfterPublishingEvent() throws Exception {
+    when(todoRepository.save(any(Todo.class))).then(invocation -> {
+      Todo todo = invocation.getArgument(0);
+      todo.setId(100L);
+      return todo;
+    });
+    var todo = createValidTodo(1L);
+    todo.setOwner(createValidUser(7L, "owner"));
+
+    todoService.create(todo);
+
+    var order = inOrder(eventPublisher, todoListCache);
+    order.verify(eventPublisher).publishEvent(any(TodoEvent.class));
+    order.verify(todoListCache).invalidateOwner(7L);
+  }
+
   @Test
   public void test_create_withInvalidMessage_shouldThrowBadRequestException() {
     BadRequestException exception = assertThrows(BadRequestException.class,
@@ -66,6 +137,73 @@ public class TodoServiceUnitTest {
     assertTrue(actualMessage.contains(expectedMessage));
   }
 
+  @Test
+  public void test_createAll_mixedItems_ShouldReportEachItem() throws Exception {
+    doCallRealMethod().when(transaction).executeWithoutResult(any());
+    when(transaction.execute(any())).thenAnswer(x -> x.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    when(todoRepository.findAllById(any())).thenReturn(List.of(createValidTodo(7L)));
+    when(todoRepository.saveAll(any())).then(invocation -> {
+      List<Todo> todos = invocation.getArgument(0);
+      todos.forEach(x -> x.setId(100L + todos.indexOf(x)));
+      return todos;
+    });
+
+    var result = todoService.createAll(List.of(createValidTodo("first"), createValidTodo(1L, ""),
+        createValidTodo(7L), createValidTodo("x".repeat(Todo.MAX_MESSAGE_LENGTH + 1)), createValidTodo("last")));
+
+    var statuses = result.getResults().stream().map(x -> x.getStatus()).toList();
+    assertEquals(List.of(201, 400, 409, 400, 201), statuses);
+  }
+
+  @Test
+  public void test_createAll_unknownOwner_ShouldReportItem() throws Exception {
+    doCallRealMethod().when(transaction).executeWithoutResult(any());
+    when(transaction.execute(any())).thenAnswer(x -> x.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    when(userRepository.findAllById(any())).thenReturn(List.of(createValidUser(7L, "owner")));
+    when(todoRepository.saveAll(any())).then(invocation -> {
+      List<Todo> todos = invocation.getArgument(0);
+      todos.forEach(x -> x.setId(100L));
+      return todos;
+    });
+    var owned = createValidTodo("owned");
+    owned.setOwner(createValidUser(7L, "owner"));
+    var orphan = createValidTodo("orphan");
+    orphan.setOwner(createValidUser(8L, "unknown"));
+
+    var result = todoService.createAll(List.of(owned, orphan));
+
+    var statuses = result.getResults().stream().map(x -> x.getStatus()).toList();
+    assertEquals(List.of(201, 400), statuses);
+    assertEquals("Cannot find USER with ID: 8", result.getResults().get(1).getError());
+  }
+
+  @Test
+  public void test_createAll_commitFails_ShouldNotCacheTodos() {
+    doCallRealMethod().when(transaction).executeWithoutResult(any());
+    when(transaction.execute(any())).thenAnswer(x -> {
+      x.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+      throw new TransactionSystemException("Commit failed");
+    });
+    when(todoRepository.saveAll(any())).then(invocation -> {
+      List<Todo> todos = invocation.getArgument(0);
+      todos.forEach(x -> x.setId(100L));
+      return todos;
+    });
+
+    assertThrows(TransactionSystemException.class, () -> todoService.createAll(List.of(createValidTodo("first"))));
+    assertNull(todoCache.getIfPresent(100L));
+  }
+
+  @Test
+  public void test_createAll_emptyBatch_ShouldThrowBadRequestException() {
+    BadRequestException exception = assertThrows(BadRequestException.class,
+        () -> todoService.createAll(List.of()));
+
+    String expectedMessage = "TODO batch cannot be empty";
+    String actualMessage = exception.getMessage();
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
   @Test
   public void test_findById_withValidId_ShouldReturnTodo() throws Exception {
     when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L, "test")));
@@ -87,6 +225,142 @@ public class TodoServiceUnitTest {
     String expectedMessage = "Cannot find TODO with ID: ";
     String actualMessage = exception.getMessage();
     assertTrue(actualMessage.contains(expectedMessage));
+    assertEquals(0, exception.getStackTrace().length);
+  }
+
+  @Test
+  public void test_findById_calledTwice_ShouldHitRepositoryOnce() throws Exception {
+    when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L, "test")));
+
+    todoService.findById(1L);
+    todoService.findById(1L);
+
+    verify(todoRepository, times(1)).findById(1L);
+    assertEquals(1L, todoCache.statistics().getHits());
+  }
+
+  @Test
+  public void test_findById_missingIdCalledTwice_ShouldHitRepositoryOnce() {
+    when(todoRepository.findById(any(Long.class))).thenReturn(Optional.empty());
+
+    assertThrows(ResourceNotFoundException.class, () -> todoService.findById(1L));
+    assertThrows(ResourceNotFoundException.class, () -> todoService.findById(1L));
+
+    verify(todoRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  public void test_updateMessage_afterFindById_ShouldInvalidateCache() throws Exception {
+    when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L, "test")));
+    when(todoRepository.updateMessage(any(Long.class), any(String.class), any(), any(Timestamp.class))).thenReturn(1);
+
+    todoService.findById(1L);
+    todoService.updateMessage(1L, "updateMessage");
+    todoService.findById(1L);
+
+    verify(todoRepository, times(2)).findById(1L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findAllByUserId_calledTwice_ShouldQueryOnce() {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+        .thenReturn(List.of(createValidSummary(1L), createValidSummary(2L)));
+
+    todoService.findAllByUserId(1L);
+    var todos = todoService.findAllByUserId(1L);
+
+    assertThat(todos.size()).isEqualTo(2);
+    verify(todoRepository, times(1)).findSummaries(any(Specification.class), any(Sort.class), anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findAllByUserId_ownerIndexBuilt_ShouldReadTodosById() {
+    var snapshot = new TodoOwnerIndex();
+    snapshot.put(3L, 1L);
+    snapshot.put(2L, 1L);
+    snapshot.put(4L, 9L);
+    ownerIndex.beginBuild();
+    ownerIndex.finishBuild(snapshot);
+    when(todoRepository.findAllSummariesById(List.of(2L, 3L)))
+        .thenReturn(List.of(createValidSummary(3L), createValidSummary(2L)));
+
+    var todos = todoService.findAllByUserId(1L);
+
+    assertEquals(List.of(2L, 3L), todos.stream().map(TodoSummary::getId).toList());
+    verify(todoRepository, times(0)).findSummaries(any(Specification.class), any(Sort.class), anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findAllByUserId_largeOwner_ShouldScanOwnerRange() {
+    var snapshot = new TodoOwnerIndex();
+    LongStream.rangeClosed(1, TodoService.MAX_FIND_BY_ID + 1).forEach(x -> snapshot.put(x, 1L));
+    ownerIndex.beginBuild();
+    ownerIndex.finishBuild(snapshot);
+
+    todoService.findAllByUserId(1L);
+
+    verify(todoRepository, times(1)).findSummaries(any(Specification.class), any(Sort.class), anyInt());
+    verify(todoRepository, times(0)).findAllSummariesById(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findPage_ownerListCached_ShouldSliceFromCache() throws Exception {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+        .thenReturn(List.of(createValidSummary(1L), createValidSummary(2L), createValidSummary(3L)));
+    todoService.findAllByUserId(1L);
+
+    var first = todoService.findPage(TodoFilter.byOwner(1L), null, 2);
+    var second = todoService.findPage(TodoFilter.byOwner(1L), first.getNext(), 2);
+
+    assertEquals(List.of(1L, 2L), first.getItems().stream().map(TodoSummary::getId).toList());
+    assertEquals(List.of(3L), second.getItems().stream().map(TodoSummary::getId).toList());
+    assertThat(second.getNext()).isNull();
+    verify(todoRepository, times(1)).findSummaries(any(Specification.class), any(Sort.class), anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findPage_firstPageIsWholeList_ShouldCacheListWithoutReadingAhead() throws Exception {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+        .thenReturn(List.of(createValidSummary(1L), createValidSummary(2L)));
+
+    todoService.findPage(TodoFilter.byOwner(1L), null, 10);
+    todoService.findPage(TodoFilter.byOwner(1L), null, 10);
+
+    verify(todoRepository, times(1)).findSummaries(any(Specification.class), any(Sort.class), eq(11));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findAllByUserId_otherOwnerWrittenWhileLoading_ShouldStillCacheList() throws Exception {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt())).then(invocation -> {
+      todoListCache.invalidateOwner(2L);
+      return List.of(createValidSummary(1L));
+    });
+
+    todoService.findAllByUserId(1L);
+    todoService.findAllByUserId(1L);
+
+    verify(todoRepository, times(1)).findSummaries(any(Specification.class), any(Sort.class), anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_deleteById_todoInCachedList_ShouldInvalidateOwnerList() throws Exception {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+        .thenReturn(List.of(createValidSummary(1L), createValidSummary(2L)));
+    when(todoRepository.deleteReturningState(eq(2L), any(Timestamp.class))).thenReturn(Optional.of(new TodoState(2L, 1L, false)));
+    when(transaction.execute(any())).thenAnswer(x -> x.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+    todoService.findAllByUserId(1L);
+    todoService.deleteById(2L);
+    todoService.findAllByUserId(1L);
+
+    verify(todoRepository, times(2)).findSummaries(any(Specification.class), any(Sort.class), anyInt());
   }
 
   @Test
@@ -100,14 +374,84 @@ public class TodoServiceUnitTest {
     assertThat(todos.size()).isEqualTo(3);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findPage_moreRowsThanLimit_ShouldReturnNextCursor() throws Exception {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+        .thenReturn(List.of(createValidSummary(1L), createValidSummary(2L), createValidSummary(3L)));
+
+    var page = todoService.findPage(new TodoFilter(), null, 2);
+
+    assertThat(page.getItems().size()).isEqualTo(2);
+    assertThat(page.getNext()).isNotNull();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_findPage_lastPage_ShouldNotReturnNextCursor() throws Exception {
+    when(todoRepository.findSummaries(any(Specification.class), any(Sort.class), anyInt()))
+        .thenReturn(List.of(createValidSummary(1L)));
+
+    var page = todoService.findPage(TodoFilter.byOwner(1L), null, 2);
+
+    assertThat(page.getItems().size()).isEqualTo(1);
+    assertThat(page.getNext()).isNull();
+  }
+
+  @Test
+  public void test_findPage_invalidCursor_ShouldThrowBadRequestException() {
+    BadRequestException exception = assertThrows(BadRequestException.class,
+        () -> todoService.findPage(new TodoFilter(), "not a cursor", 10));
+
+    String expectedMessage = "Invalid cursor";
+    String actualMessage = exception.getMessage();
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  public void test_findPage_limitOutOfRange_ShouldThrowBadRequestException() {
+    assertThrows(BadRequestException.class, () -> todoService.findPage(new TodoFilter(), null, 0));
+    assertThrows(BadRequestException.class,
+        () -> todoService.findPage(new TodoFilter(), null, TodoService.MAX_PAGE_SIZE + 1));
+  }
+
   @Test
   public void test_updateTodo_validTodo_ShouldBeValid() throws Exception {
     when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L)));
+    when(todoRepository.save(any(Todo.class))).then(returnsFirstArg());
 
     var todo = createValidTodo(1L);
     todoService.updateTodo(todo);
   }
 
+  @Test
+  public void test_updateTodo_staleVersion_ShouldThrowPreconditionFailedException() {
+    var currentTodo = createValidTodo(1L);
+    currentTodo.setVersion(2L);
+    when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(currentTodo));
+
+    assertThrows(PreconditionFailedException.class, () -> todoService.updateTodo(createValidTodo(1L), 1L));
+    verify(todoRepository, times(0)).save(any(Todo.class));
+  }
+
+  @Test
+  public void test_updateStatus_staleVersion_ShouldThrowPreconditionFailedException() {
+    when(todoRepository.updateDone(any(Long.class), any(Boolean.class), any(), any(Timestamp.class))).thenReturn(0);
+    when(todoRepository.findVersionById(any(Long.class))).thenReturn(Optional.of(2L));
+
+    assertThrows(PreconditionFailedException.class, () -> todoService.updateStatus(1L, true, 1L));
+  }
+
+  @Test
+  public void test_updateStatus_alreadySet_ShouldNotPublishEvent() throws Exception {
+    when(todoRepository.updateDone(any(Long.class), any(Boolean.class), any(), any(Timestamp.class))).thenReturn(0);
+    when(todoRepository.findVersionById(any(Long.class))).thenReturn(Optional.of(1L));
+
+    todoService.updateStatus(1L, true, 1L);
+
+    verify(eventPublisher, times(0)).publishEvent(any(TodoEvent.class));
+  }
+
   @Test
   public void test_updateTodo_emptyMessage_ShouldThrowBadRequestException() {
     when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L)));
@@ -137,15 +481,45 @@ public class TodoServiceUnitTest {
 
   @Test
   public void test_updateMessage_ValidMessage_ShouldBeValid() throws Exception {
-    when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L)));
+    when(todoRepository.updateMessage(any(Long.class), any(String.class), any(), any(Timestamp.class))).thenReturn(1);
 
     todoService.updateMessage(1L, "updateMessage");
+
+    verify(todoRepository, times(0)).findById(any(Long.class));
+    verify(todoRepository, times(0)).save(any(Todo.class));
   }
 
   @Test
-  public void test_updateMessage_EmptyMessage_ShouldThrowBadRequestException() {
-    when(todoRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidTodo(1L)));
+  public void test_updateMessage_TodoDoesNotExist_ShouldThrowResourceNotFoundException() {
+    when(todoRepository.updateMessage(any(Long.class), any(String.class), any(), any(Timestamp.class))).thenReturn(0);
+
+    assertThrows(ResourceNotFoundException.class, () -> todoService.updateMessage(1L, "updateMessage"));
+  }
+
+  @Test
+  public void test_updateStatus_ValidId_ShouldUpdateWithoutLoading() throws Exception {
+    when(todoRepository.updateDone(any(Long.class), any(Boolean.class), any(), any(Timestamp.class))).thenReturn(1);
 
+    todoService.updateStatus(1L, true);
+
+    verify(todoRepository, times(1)).updateDone(any(Long.class), any(Boolean.class), any(), any(Timestamp.class));
+    verify(todoRepository, times(0)).findById(any(Long.class));
+  }
+
+  @Test
+  public void test_updateStatus_TodoDoesNotExist_ShouldThrowResourceNotFoundException() {
+    when(todoRepository.updateDone(any(Long.class), any(Boolean.class), any(), any(Timestamp.class))).thenReturn(0);
+
+    ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+        () -> todoService.updateStatus(1L, true));
+
+    String expectedMessage = "Cannot find TODO with ID: ";
+    String actualMessage = exception.getMessage();
+    assertTrue(actualMessage.contains(expectedMessage));
+  }
+
+  @Test
+  public void test_updateMessage_EmptyMessage_ShouldThrowBadRequestException() {
     BadRequestException exception = assertThrows(BadRequestException.class,
         () -> todoService.updateMessage(1L, ""));
 
@@ -154,15 +528,26 @@ public class TodoServiceUnitTest {
     assertTrue(actualMessage.contains(expectedMessage));
   }
 
+  @Test
+  public void test_updateMessage_TooLongMessage_ShouldThrowBadRequestException() {
+    BadRequestException exception = assertThrows(BadRequestException.class,
+        () -> todoService.updateMessage(1L, "x".repeat(Todo.MAX_MESSAGE_LENGTH + 1)));
+
+    assertTrue(exception.getMessage().contains("cannot be longer than"));
+  }
+
   @Test
   public void test_deleteById_ValidId_ShouldBeValid() throws Exception{
-    when(todoRepository.existsById(any(Long.class))).thenReturn(true);
+    when(todoRepository.deleteReturningState(eq(1L), any(Timestamp.class))).thenReturn(Optional.of(new TodoState(1L, 1L, true)));
+    when(transaction.execute(any())).thenAnswer(x -> x.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     todoService.deleteById(1L);
+    verify(eventPublisher, times(1)).publishEvent(any(TodoEvent.class));
   }
 
   @Test
   public void test_deleteById_IdDoesNotExist_ShouldThrowResourceNotFoundException() {
-    when(todoRepository.existsById(any(Long.class))).thenReturn(false);
+    when(todoRepository.deleteReturningState(any(Long.class), any(Timestamp.class))).thenReturn(Optional.empty());
+    when(transaction.execute(any())).thenAnswer(x -> x.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> todoService.deleteById(1L));
 
@@ -171,4 +556,20 @@ public class TodoServiceUnitTest {
 
     assertTrue(actualMessage.contains(expectedMessage));
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test_deleteAllByUserId_moreThanOneChunk_ShouldContinueAfterLastId() {
+    var firstChunk = LongStream.rangeClosed(1, TodoService.DELETE_CHUNK_SIZE)
+        .mapToObj(x -> new TodoState(x, 1L, true)).toList();
+    when(todoRepository.deleteChunk(any(Specification.class), anyLong(), anyInt(), any(Timestamp.class)))
+        .thenReturn(firstChunk, List.of(new TodoState(TodoService.DELETE_CHUNK_SIZE + 1L, 1L, true)));
+    when(transaction.execute(any())).thenAnswer(x -> x.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+    var deleted = todoService.deleteAllByUserId(1L, true);
+
+    assertEquals(TodoService.DELETE_CHUNK_SIZE + 1L, deleted);
+    verify(todoRepository, times(1)).deleteChunk(any(Specification.class), eq(Long.MIN_VALUE), anyInt(), any(Timestamp.class));
+    verify(todoRepository, times(1)).deleteChunk(any(Specification.class), eq((long) TodoService.DELETE_CHUNK_SIZE), anyInt(), any(Timestamp.class));
+  }
 }
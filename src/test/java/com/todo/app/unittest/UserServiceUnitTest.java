@@ -1,5 +1,7 @@
 package com.todo.app.unittest;
 
+import com.todo.app.cache.EntityCache;
+import com.todo.app.datasource.ReadYourWrites;
 import com.todo.app.entity.User;
 import com.todo.app.exceptions.BadRequestException;
 import com.todo.app.exceptions.ResourceAlreadyExistsException;
@@ -10,8 +12,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,12 +27,20 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceUnitTest {
   @Mock
   private UserRepository userRepository;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Spy
+  private EntityCache<User> userCache = new EntityCache<>(100, Duration.ofMinutes(1), Duration.ofSeconds(10));
+  @Spy
+  private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(2));
   @InjectMocks
   private UserService todoService;
 
@@ -89,6 +102,28 @@ public class UserServiceUnitTest {
     assertTrue(actualMessage.contains(expectedMessage));
   }
 
+  @Test
+  public void test_findById_calledTwice_ShouldHitRepositoryOnce() throws Exception {
+    when(userRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidUser(1L, "test")));
+
+    todoService.findById(1L);
+    todoService.findById(1L);
+
+    verify(userRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  public void test_deleteById_afterFindById_ShouldInvalidateCache() throws Exception {
+    when(userRepository.findById(any(Long.class))).thenReturn(Optional.of(createValidUser(1L, "test")));
+    when(userRepository.removeById(any(Long.class))).thenReturn(1);
+
+    todoService.findById(1L);
+    todoService.deleteById(1L);
+    todoService.findById(1L);
+
+    verify(userRepository, times(2)).findById(1L);
+  }
+
   @Test
   public void test_findAll_ShouldReturnUsersList() {
     when(userRepository.findAll())
@@ -158,13 +193,13 @@ public class UserServiceUnitTest {
 
   @Test
   public void test_deleteById_ValidId_ShouldBeValid() throws Exception{
-    when(userRepository.existsById(any(Long.class))).thenReturn(true);
+    when(userRepository.removeById(any(Long.class))).thenReturn(1);
     todoService.deleteById(1L);
   }
 
   @Test
   public void test_deleteById_IdDoesNotExist_ShouldThrowResourceNotFoundException() {
-    when(userRepository.existsById(any(Long.class))).thenReturn(false);
+    when(userRepository.removeById(any(Long.class))).thenReturn(0);
 
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> todoService.deleteById(1L));
 
@@ -1,6 +1,7 @@
 package com.todo.app.utils;
 
 import com.todo.app.entity.Todo;
+import com.todo.app.entity.TodoSummary;
 
 public class TodoUtils {
   public static Todo createValidTodo(Long id) {
@@ -22,4 +23,8 @@ public class TodoUtils {
     todo.setMessage(message);
     return todo;
   }
+
+  public static TodoSummary createValidSummary(Long id) {
+    return TodoSummary.from(createValidTodo(id));
+  }
 }